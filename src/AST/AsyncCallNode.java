@@ -0,0 +1,11 @@
+package AST;
+
+// "async" in front of a method call - starts the call on its own thread and evaluates to a task handle.
+public class AsyncCallNode implements ExpressionNode {
+    public MethodCallExpressionNode call;
+
+    @Override
+    public String toString() {
+        return "async " + call;
+    }
+}
@@ -5,6 +5,11 @@ public class BooleanOpNode implements ExpressionNode {
     public ExpressionNode right;
     public enum BooleanOperations { and, or }
     public BooleanOperations op;
+    //set by the Linker when neither side has side effects or can fail, so the Interpreter may evaluate either one first
+    public boolean reorderable;
+    //kept by the Interpreter for a reorderable node: whether the right side goes first, and how often each side decided the answer
+    public boolean rightFirst;
+    public int evaluations, firstDecided, secondDecided;
     @Override
     public String toString() {
         return left + ((op== BooleanOperations.and) ? " and " : " or ") + right;
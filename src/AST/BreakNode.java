@@ -0,0 +1,9 @@
+package AST;
+
+// Leaves the innermost loop (not allowed directly in a parallel loop).
+public class BreakNode implements StatementNode {
+    @Override
+    public String toString() {
+        return "break";
+    }
+}
@@ -0,0 +1,15 @@
+package AST;
+
+import Interpreter.InterpreterDataType;
+import Interpreter.ObjectIDT;
+
+import java.util.List;
+
+// Constructor of a built-in class (channel, actor ...). Built-in constructors check their own parameters.
+public abstract class BuiltInConstructorNode extends ConstructorNode {
+    public abstract void Execute(ObjectIDT object, List<InterpreterDataType> params);
+    @Override
+    public String toString() {
+        return "Built-in constructor";
+    }
+}
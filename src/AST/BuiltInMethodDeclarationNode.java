@@ -1,12 +1,19 @@
 package AST;
 
 import Interpreter.InterpreterDataType;
+import Interpreter.ObjectIDT;
 
 import java.util.List;
 
 public abstract class BuiltInMethodDeclarationNode extends MethodDeclarationNode {
     public boolean isVariadic = false;
+    // Changes the object it is called on, and isn't safe to call from several threads at once (map.put), so a parallel loop can't call it.
+    public boolean changesObject = false;
     public abstract List<InterpreterDataType> Execute(List<InterpreterDataType> params);
+    // Used when the built-in is called on an object (ch.send(x)); shared built-ins like console.write don't need the object.
+    public List<InterpreterDataType> Execute(ObjectIDT object, List<InterpreterDataType> params) {
+        return Execute(params);
+    }
     @Override
     public String toString() {
         return "Built-in method, isVariadic = " + isVariadic + super.toString();
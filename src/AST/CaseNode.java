@@ -0,0 +1,15 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One "case" of a match: the constants it matches and the statements it runs.
+public class CaseNode {
+    public List<ExpressionNode> constants = new ArrayList<>();
+    public List<StatementNode> statements = new ArrayList<>();
+
+    @Override
+    public String toString() {
+        return "case " + Node.parameterListToString(constants) + "\n" + Node.statementListToString(statements);
+    }
+}
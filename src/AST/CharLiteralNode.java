@@ -1,7 +1,11 @@
 package AST;
 
+import Interpreter.InterpreterDataType;
+
 public class CharLiteralNode implements ExpressionNode {
     public char value;
+    //the value, from the program's constant pool (set by the Linker; null before linking)
+    public InterpreterDataType constant;
     @Override
     public String toString() {
         return "'" + value + "'";
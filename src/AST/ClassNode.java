@@ -1,5 +1,7 @@
 package AST;
 
+import Interpreter.Shape;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,6 +12,11 @@ public class ClassNode implements Node {
     public List<ConstructorNode> constructors = new ArrayList<>();
     public List<MethodDeclarationNode> methods = new ArrayList<>();
     public List<MemberNode> members = new ArrayList<>();
+    //the layout of this class's objects (see Shape); made when first needed
+    public Shape shape;
+    //filled in by the Linker: for each interface (by its number), this class's method for each of the interface's
+    //headers, in order - null for an interface that this class doesn't implement
+    public MethodDeclarationNode[][] itables;
 
     @Override
     public String toString() {
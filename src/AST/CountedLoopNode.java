@@ -0,0 +1,23 @@
+package AST;
+
+import Interpreter.ArrayKernel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// loop i = from until to [by step] - i is from, from + step, ... up to but not including "until" (down to, for a negative step).
+public class CountedLoopNode implements StatementNode {
+    public VariableReferenceNode variable;
+    public ExpressionNode from;
+    public ExpressionNode until;
+    public Optional<ExpressionNode> step = Optional.empty();
+    public List<StatementNode> statements = new ArrayList<>();
+    //set by the Linker when the body is an element-wise numberArray set that can run a block at a time
+    public ArrayKernel kernel;
+
+    @Override
+    public String toString() {
+        return "loop " + variable + " = " + from + " until " + until + step.map(s -> " by " + s).orElse("") + "\n" +
+                Node.statementListToString(statements);
+    }
+}
@@ -0,0 +1,15 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Waits for a task started by "async" and copies its return values into returnValues (like a method call statement).
+public class JoinNode implements StatementNode {
+    public List<VariableReferenceNode> returnValues = new ArrayList<>();
+    public VariableReferenceNode task;
+
+    @Override
+    public String toString() {
+        return Node.variableReferenceListToString(returnValues) + (returnValues.isEmpty() ? "" : " = ") + "join " + task;
+    }
+}
@@ -0,0 +1,27 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+// match x - runs the statements of the case whose constant equals x, or the else statements if no case does.
+public class MatchNode implements StatementNode {
+    public ExpressionNode subject;
+    public List<CaseNode> cases = new ArrayList<>();
+    public Optional<ElseNode> elseStatement = Optional.empty();
+    //filled in by the Linker: the index of the case for each constant - or, when the constants are all whole numbers
+    //close together, an array indexed by (constant - denseFrom) holding the case index (-1 for none)
+    public HashMap<Object, Integer> table;
+    public int[] denseTable;
+    public int denseFrom;
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("match " + subject + "\n");
+        for (CaseNode caseNode : cases) {
+            sb.append(caseNode);
+        }
+        return sb + elseStatement.map(ElseNode::toString).orElse("") + "\n";
+    }
+}
@@ -9,6 +9,9 @@ import java.util.Optional;
 public class MethodCallExpressionNode implements ExpressionNode {
     public Optional<String> objectName;
     public String methodName;
+    //filled in by the Linker for a call on an interface-typed variable: the interface's number and the method's slot in it
+    public int interfaceNumber = -1;
+    public int itableSlot = -1;
     public List<ExpressionNode> parameters = new ArrayList<>();
     @Override
     public String toString() {
@@ -17,10 +17,15 @@ public class MethodCallStatementNode implements StatementNode {
         objectName = mce.objectName;
         methodName = mce.methodName;
         parameters = mce.parameters;
+        interfaceNumber = mce.interfaceNumber;
+        itableSlot = mce.itableSlot;
     }
 
     public Optional<String> objectName;
     public String methodName;
+    //filled in by the Linker for a call on an interface-typed variable: the interface's number and the method's slot in it
+    public int interfaceNumber = -1;
+    public int itableSlot = -1;
     public List<VariableReferenceNode> returnValues = new ArrayList<>();
     public List<ExpressionNode> parameters = new ArrayList<>();
     public String toString() {
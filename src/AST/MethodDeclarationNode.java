@@ -12,6 +12,9 @@ public class MethodDeclarationNode implements Node {
     public List<VariableDeclarationNode> returns = new ArrayList<>();
     public List<VariableDeclarationNode> locals = new ArrayList<>();
     public List<StatementNode> statements = new ArrayList<>();
+    //set by the Linker when this is a member's accessor (or mutator) that only reads (or stores) the member: its slot
+    public int accessorSlot = -1;
+    public int mutatorSlot = -1;
 
     @Override
     public String toString() {
@@ -6,6 +6,9 @@ import java.util.List;
 public class NewNode implements Node, ExpressionNode{
     public String className;
     public List<ExpressionNode> parameters = new ArrayList<>();
+    //filled in by the Linker: the class, and the constructor if only one of them takes this many parameters
+    public ClassNode classNode;
+    public ConstructorNode constructor;
 
     @Override
     public String toString() {
@@ -1,7 +1,14 @@
 package AST;
 
+import Interpreter.InterpreterDataType;
+
 public class NumericLiteralNode implements ExpressionNode {
     public float value;
+    //a literal without a decimal point that fits in a long is exact: isWhole is set and wholeValue holds it
+    public boolean isWhole;
+    public long wholeValue;
+    //the value, from the program's constant pool (set by the Linker; null before linking)
+    public InterpreterDataType constant;
 
     @Override
     public String toString() {
@@ -0,0 +1,21 @@
+package AST;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// parallel loop i = from until to [by step] [reduce ...] - the iterations (from, from + step, ... up to but not including "until") may run on any core.
+public class ParallelLoopNode implements StatementNode {
+    public VariableReferenceNode variable;
+    public ExpressionNode from;
+    public ExpressionNode until;
+    public Optional<ExpressionNode> step = Optional.empty();
+    public List<ReductionNode> reductions = new ArrayList<>();
+    public List<StatementNode> statements = new ArrayList<>();
+
+    @Override
+    public String toString() {
+        return "parallel loop " + variable + " = " + from + " until " + until + step.map(s -> " by " + s).orElse("") +
+                (reductions.isEmpty() ? "" : " reduce " + reductions) + "\n" + Node.statementListToString(statements);
+    }
+}
@@ -0,0 +1,13 @@
+package AST;
+
+// One "reduce" clause of a parallel loop: each worker gets its own copy of the variable, and the copies are combined with op at the end.
+public class ReductionNode implements Node {
+    public enum ReductionOperations { sum, min, max, count }
+    public ReductionOperations op;
+    public VariableReferenceNode variable;
+
+    @Override
+    public String toString() {
+        return op + " " + variable;
+    }
+}
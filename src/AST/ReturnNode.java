@@ -0,0 +1,9 @@
+package AST;
+
+// Leaves the method (or constructor) now. The return values are whatever the return variables hold.
+public class ReturnNode implements StatementNode {
+    @Override
+    public String toString() {
+        return "return";
+    }
+}
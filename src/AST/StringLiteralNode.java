@@ -1,7 +1,11 @@
 package AST;
 
+import Interpreter.InterpreterDataType;
+
 public class StringLiteralNode implements ExpressionNode {
     public String value;
+    //the value, from the program's constant pool (set by the Linker; null before linking)
+    public InterpreterDataType constant;
 
     @Override
     public String toString() {
@@ -2,6 +2,8 @@ package AST;
 
 public class VariableReferenceNode implements Node,ExpressionNode {
     public String name;
+    //set by the Linker if this is a member of the class it is in (and no local has the same name): its slot in the object
+    public int memberSlot = -1;
 
     @Override
     public String toString() {
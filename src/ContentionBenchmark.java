@@ -0,0 +1,149 @@
+import AST.BuiltInConstructorNode;
+import AST.BuiltInMethodDeclarationNode;
+import AST.ClassNode;
+import AST.MethodDeclarationNode;
+import AST.TranNode;
+import Interpreter.Interpreter;
+import Interpreter.InterpreterDataType;
+import Interpreter.NumberIDT;
+import Interpreter.ObjectIDT;
+import Interpreter.StringIDT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Contention benchmark for the built-in shared-state classes (atomicNumber, counter, concurrentMap).
+ * Every thread adds 1 to the same object, over and over, through the built-in method nodes - so the numbers include the
+ * dispatch a Tran program pays, but not the rest of the interpreter. A synchronized number is the baseline.
+ *
+ * Usage: java ContentionBenchmark [threads] [addsPerThread]
+ * The defaults are 32 threads (or 2 per core, if that is more) and 500000 adds each. Totals are checked, which only works
+ * while they stay below 2^24 (where a float stops counting by ones).
+ */
+public class ContentionBenchmark {
+    private interface Adder {
+        void add(int thread, int i);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(32, 2 * Runtime.getRuntime().availableProcessors());
+        int adds = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        TranNode top = new TranNode();
+        new Interpreter(top);
+        List<InterpreterDataType> one = List.of(new NumberIDT(1));
+
+        System.out.printf("%d threads x %d adds%n", threads, adds);
+
+        ObjectIDT atomic = create(top, "atomicNumber");
+        BuiltInMethodDeclarationNode atomicAdd = method(top, "atomicNumber", "add");
+        measure("atomicNumber.add", threads, adds, (thread, i) -> atomicAdd.Execute(atomic, one),
+                () -> value(call(top, atomic, "get")));
+
+        ObjectIDT counter = create(top, "counter");
+        BuiltInMethodDeclarationNode counterAdd = method(top, "counter", "add");
+        measure("counter.add", threads, adds, (thread, i) -> counterAdd.Execute(counter, one),
+                () -> value(call(top, counter, "sum")));
+
+        ObjectIDT hotMap = create(top, "concurrentMap");
+        BuiltInMethodDeclarationNode hotAdd = method(top, "concurrentMap", "add");
+        List<InterpreterDataType> hotKey = List.of(new StringIDT("hits"), new NumberIDT(1));
+        measure("concurrentMap.add (1 key)", threads, adds, (thread, i) -> hotAdd.Execute(hotMap, hotKey),
+                () -> value(call(top, hotMap, "get", new StringIDT("hits"))));
+
+        ObjectIDT spreadMap = create(top, "concurrentMap");
+        List<List<InterpreterDataType>> keys = new ArrayList<>();
+        for (int k = 0; k < 64; k++) {
+            keys.add(List.of(new NumberIDT(k), new NumberIDT(1)));
+        }
+        measure("concurrentMap.add (64 keys)", threads, adds, (thread, i) -> hotAdd.Execute(spreadMap, keys.get((thread + i) & 63)),
+                () -> {
+                    float total = 0;
+                    for (int k = 0; k < 64; k++) {
+                        total += value(call(top, spreadMap, "get", new NumberIDT(k)));
+                    }
+                    return total;
+                });
+
+        NumberIDT plain = new NumberIDT(0);
+        measure("synchronized number", threads, adds, (thread, i) -> {
+            synchronized (plain) {
+                plain.set(plain.Whole + 1);
+            }
+        }, () -> plain.Value);
+    }
+
+    private interface Total {
+        float get();
+    }
+
+    /**
+     * Run a short warm-up round and then a timed round. Print adds per second, and check that no add was lost.
+     */
+    private static void measure(String name, int threads, int adds, Adder adder, Total total) throws InterruptedException {
+        int warmUp = Math.min(adds, 20_000);
+        run(threads, warmUp, adder);
+        long nanos = run(threads, adds, adder);
+        float expected = (float) threads * (warmUp + adds);
+        float actual = total.get();
+        System.out.printf("%-30s %8.1f M adds/s  %s%n", name, (double) threads * adds / nanos * 1000,
+                actual == expected ? "ok" : "WRONG TOTAL: expected " + expected + " got " + actual);
+    }
+
+    private static long run(int threads, int adds, Adder adder) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(Thread.ofPlatform().start(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < adds; i++) {
+                    adder.add(thread, i);
+                }
+            }));
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static ObjectIDT create(TranNode top, String className) {
+        ClassNode classNode = classNode(top, className);
+        ObjectIDT object = new ObjectIDT(classNode);
+        ((BuiltInConstructorNode) classNode.constructors.getFirst()).Execute(object, List.of());
+        return object;
+    }
+
+    private static BuiltInMethodDeclarationNode method(TranNode top, String className, String methodName) {
+        for (MethodDeclarationNode m : classNode(top, className).methods) {
+            if (m.name.equals(methodName)) {
+                return (BuiltInMethodDeclarationNode) m;
+            }
+        }
+        throw new RuntimeException("No built-in " + className + "." + methodName);
+    }
+
+    private static InterpreterDataType call(TranNode top, ObjectIDT object, String methodName, InterpreterDataType... params) {
+        return method(top, object.astNode.name, methodName).Execute(object, List.of(params)).getFirst();
+    }
+
+    private static ClassNode classNode(TranNode top, String className) {
+        return top.Classes.stream().filter(c -> c.name.equals(className)).findFirst()
+                .orElseThrow(() -> new RuntimeException("No built-in class " + className));
+    }
+
+    private static float value(InterpreterDataType number) {
+        return ((NumberIDT) number).Value;
+    }
+}
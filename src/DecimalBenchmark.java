@@ -0,0 +1,70 @@
+import AST.MathOpNode;
+import Interpreter.DecimalIDT;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Arithmetic benchmark for the decimal type: the same billing work done with DecimalIDT (scaled longs, BigDecimal only
+ * on overflow) and with plain BigDecimals. For each invoice line: amount = price * quantity, split = amount / 3 (to the
+ * cent, half up), and the running totals of both. Then the invoice total gets tax (total * 0.0825). The two results are
+ * checked against each other.
+ *
+ * Usage: java DecimalBenchmark [lines] [rounds]
+ * The defaults are 1000000 lines and 5 rounds (the first round is a warm-up and isn't reported).
+ */
+public class DecimalBenchmark {
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Random random = new Random(42);
+        long[] cents = new long[lines];
+        long[] quantities = new long[lines];
+        for (int i = 0; i < lines; i++) {
+            cents[i] = random.nextInt(1_000_000);
+            quantities[i] = 1 + random.nextInt(20);
+        }
+        System.out.printf("%d invoice lines%n", lines);
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            String scaled = scaledLongs(cents, quantities);
+            long scaledNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            String big = bigDecimals(cents, quantities);
+            long bigNanos = System.nanoTime() - start;
+            if (round == 0) {
+                continue;
+            }
+            System.out.printf("decimal %7.1f ms   BigDecimal %7.1f ms   %.1fx  %s%n", scaledNanos / 1e6, bigNanos / 1e6,
+                    (double) bigNanos / scaledNanos, scaled.equals(big) ? "ok" : "DIFFERENT: " + scaled + " vs " + big);
+        }
+    }
+
+    private static String scaledLongs(long[] cents, long[] quantities) {
+        DecimalIDT.Division toCents = DecimalIDT.Division.of(2, "halfUp");
+        DecimalIDT total = new DecimalIDT(0, 2);
+        DecimalIDT splits = new DecimalIDT(0, 2);
+        DecimalIDT three = new DecimalIDT(3, 0);
+        for (int i = 0; i < cents.length; i++) {
+            DecimalIDT amount = DecimalIDT.math(MathOpNode.MathOperations.multiply, new DecimalIDT(cents[i], 2), new DecimalIDT(quantities[i], 0), toCents);
+            total = DecimalIDT.math(MathOpNode.MathOperations.add, total, amount, toCents);
+            splits = DecimalIDT.math(MathOpNode.MathOperations.add, splits, DecimalIDT.math(MathOpNode.MathOperations.divide, amount, three, toCents), toCents);
+        }
+        DecimalIDT tax = DecimalIDT.math(MathOpNode.MathOperations.multiply, total, new DecimalIDT(825, 4), toCents);
+        return total + " " + splits + " " + tax;
+    }
+
+    private static String bigDecimals(long[] cents, long[] quantities) {
+        BigDecimal total = BigDecimal.valueOf(0, 2);
+        BigDecimal splits = BigDecimal.valueOf(0, 2);
+        BigDecimal three = BigDecimal.valueOf(3);
+        for (int i = 0; i < cents.length; i++) {
+            BigDecimal amount = BigDecimal.valueOf(cents[i], 2).multiply(BigDecimal.valueOf(quantities[i]));
+            total = total.add(amount);
+            splits = splits.add(amount.divide(three, 2, RoundingMode.HALF_UP));
+        }
+        BigDecimal tax = total.multiply(BigDecimal.valueOf(825, 4));
+        return total.toPlainString() + " " + splits.toPlainString() + " " + tax.toPlainString();
+    }
+}
@@ -0,0 +1,88 @@
+package Interpreter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * The native state behind Tran's actor class: a Tran object, a mailbox and a virtual thread.
+ * Messages are method calls on the object. The actor's thread takes them out of the mailbox and runs them one at a
+ * time, in the order they were sent, so the object never sees two calls at once.
+ */
+class Actor {
+    //reply is null for "send" (nobody waits for the answer)
+    private record Message(String method, List<InterpreterDataType> parameters, CompletableFuture<List<InterpreterDataType>> reply) {}
+
+    private final ObjectIDT target;
+    private final Channel<Message> mailbox;
+    private final Thread thread;
+    //the first failure of a message sent with "send"; reported by stop()
+    private volatile RuntimeException failure;
+
+    Actor(Interpreter interpreter, ObjectIDT target, int mailboxSize) {
+        this.target = target;
+        this.mailbox = new Channel<>(mailboxSize);
+        this.thread = Thread.ofVirtual().name("tran-actor-" + target.astNode.name).start(() -> {
+            for (Message message : mailbox) {
+                try {
+                    List<InterpreterDataType> result = interpreter.callMethod(target, message.method(), message.parameters());
+                    if (message.reply() != null) {
+                        message.reply().complete(result);
+                    }
+                } catch (RuntimeException e) {
+                    if (message.reply() != null) {
+                        message.reply().completeExceptionally(e);
+                    } else if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Queue a call, waiting for room if the mailbox is full.
+     */
+    void send(String method, List<InterpreterDataType> parameters) {
+        mailbox.send(new Message(method, parameters, null));
+    }
+
+    /**
+     * Queue a call if there is room in the mailbox.
+     * @return false if the mailbox is full
+     */
+    boolean trySend(String method, List<InterpreterDataType> parameters) {
+        return mailbox.trySend(new Message(method, parameters, null));
+    }
+
+    /**
+     * Queue a call whose answer we want.
+     * @return the return values of the call, once the actor gets to it
+     */
+    Future<List<InterpreterDataType>> ask(String method, List<InterpreterDataType> parameters) {
+        CompletableFuture<List<InterpreterDataType>> reply = new CompletableFuture<>();
+        mailbox.send(new Message(method, parameters, reply));
+        return reply;
+    }
+
+    /**
+     * Take no more messages, wait for the ones already in the mailbox to run, then report the first failure (if any).
+     */
+    void stop() {
+        mailbox.close();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while stopping an actor");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "actor(" + target.astNode.name + ", " + mailbox.size() + " waiting" + (mailbox.isClosed() ? ", stopped" : "") + ")";
+    }
+}
@@ -0,0 +1,215 @@
+package Interpreter;
+
+import AST.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * An element-wise loop over numberArrays, run a block of numbers at a time instead of walking the expression's tree once
+ * per number. The Linker makes one for a counted loop whose whole body is
+ *      c.set(i, expression)
+ * where i is the loop variable, c is a numberArray local, and the expression is +, -, *, / and % of a.get(i) (a being a
+ * numberArray local), number literals and other variables. A body like that can't change any variable, so the other
+ * variables are read once, before the loop, and must be numbers.
+ *
+ * For each block of up to 1024 numbers, every array that is read is copied into a float[] with one bulk copy. Then
+ * each operator is applied to whole float[]s, in a plain loop that the JIT compiles to SIMD instructions. Finally the
+ * result is copied into c.
+ *
+ * The Interpreter does number math exactly, as longs, when both sides are whole, and as floats otherwise. The kernel
+ * does all its math as floats. The two only differ when a whole number partway through the expression was rounded, so
+ * a block stops the kernel if any partial result is 2^24 or more, or if it divides by zero (which is an error). The
+ * Interpreter then runs the rest of the loop itself. A loop the kernel can't check up front is run entirely by the
+ * Interpreter:
+ *      - a range that isn't whole, or that steps by anything but 1
+ *      - an index past the end of an array
+ *      - a variable that isn't a number, or a whole number that a float can't hold
+ *      - c sharing memory with an array it reads at a different offset (a slice of it), where writing c would change
+ *        what later numbers read
+ */
+public final class ArrayKernel {
+    private static final int blockSize = 1024;
+    //a partial result this big may be a rounded whole number
+    private static final float largestExact = 0x1p24f;
+
+    private sealed interface Term permits Element, Invariant, Operation {
+    }
+
+    //source.get(i)
+    private record Element(int source) implements Term {
+    }
+
+    //a literal or a variable, read before the loop
+    private record Invariant(int invariant) implements Term {
+    }
+
+    private record Operation(MathOpNode.MathOperations op, Term left, Term right, int scratch) implements Term {
+    }
+
+    //the array written and the arrays read (local variable names)
+    final String target;
+    final List<String> sources = new ArrayList<>();
+    final List<ExpressionNode> invariants = new ArrayList<>();
+    private final Term expression;
+    private int operations;
+
+    private ArrayKernel(CountedLoopNode loop, HashMap<String, String> locals) {
+        MethodCallStatementNode set = (MethodCallStatementNode) loop.statements.getFirst();
+        target = set.objectName.get();
+        expression = compile(set.parameters.get(1), loop.variable.name, locals);
+    }
+
+    /**
+     * @return a kernel for the loop, or null if its body isn't a single element-wise numberArray set
+     */
+    static ArrayKernel of(CountedLoopNode loop, HashMap<String, String> locals) {
+        if (loop.statements.size() != 1 || !(loop.statements.getFirst() instanceof MethodCallStatementNode set)
+                || !set.returnValues.isEmpty() || !set.methodName.equals("set") || set.parameters.size() != 2
+                || !isArray(set.objectName.orElse(null), locals) || !isIndex(set.parameters.getFirst(), loop.variable.name)
+                || !"number".equals(locals.get(loop.variable.name))) {
+            return null;
+        }
+        ArrayKernel kernel = new ArrayKernel(loop, locals);
+        return kernel.expression == null ? null : kernel;
+    }
+
+    private static boolean isArray(String name, HashMap<String, String> locals) {
+        return name != null && "numberArray".equals(locals.get(name));
+    }
+
+    private static boolean isIndex(ExpressionNode expression, String index) {
+        return expression instanceof VariableReferenceNode variable && variable.name.equals(index);
+    }
+
+    //null if it isn't something a kernel can do
+    private Term compile(ExpressionNode expression, String index, HashMap<String, String> locals) {
+        switch (expression) {
+            case MathOpNode math -> {
+                Term left = compile(math.left, index, locals);
+                Term right = compile(math.right, index, locals);
+                return left == null || right == null ? null : new Operation(math.op, left, right, operations++);
+            }
+            case MethodCallExpressionNode call when call.methodName.equals("get") && call.parameters.size() == 1
+                    && isArray(call.objectName.orElse(null), locals) && isIndex(call.parameters.getFirst(), index) -> {
+                String source = call.objectName.get();
+                if (!sources.contains(source)) {
+                    sources.add(source);
+                }
+                return new Element(sources.indexOf(source));
+            }
+            case NumericLiteralNode ignored -> {
+                invariants.add(expression);
+                return new Invariant(invariants.size() - 1);
+            }
+            case VariableReferenceNode variable when !variable.name.equals(index) -> {
+                invariants.add(expression);
+                return new Invariant(invariants.size() - 1);
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Run the loop for indexes from, from + 1, ... (count of them), as far as the kernel can.
+     * @param invariants - the value of each of the kernel's invariants
+     * @return how many indexes were done (0 if the loop couldn't be checked; less than count if a block stopped it)
+     */
+    long run(NumberArray target, NumberArray[] sources, NumberIDT[] invariants, long from, long count) {
+        if (from < 0 || count > target.length - from) {
+            return 0;
+        }
+        for (NumberArray source : sources) {
+            if (count > source.length - from || target.sharesShifted(source)) {
+                return 0;
+            }
+        }
+        float[][] invariantBlocks = new float[invariants.length][];
+        for (int k = 0; k < invariants.length; k++) {
+            NumberIDT n = invariants[k];
+            if (n.IsWhole && ((long) n.Value != n.Whole || Math.abs(n.Whole) >= 1L << 62)) {
+                return 0;
+            }
+            invariantBlocks[k] = new float[blockSize];
+            Arrays.fill(invariantBlocks[k], n.Value);
+        }
+        float[][] sourceBlocks = new float[sources.length][blockSize];
+        float[][] scratch = new float[operations][blockSize];
+
+        long done = 0;
+        while (done < count) {
+            int n = (int) Math.min(blockSize, count - done);
+            for (int k = 0; k < sources.length; k++) {
+                sources[k].read(from + done, sourceBlocks[k], n);
+            }
+            float[] result = evaluate(expression, true, sourceBlocks, invariantBlocks, scratch, n);
+            if (result == null) {
+                return done;
+            }
+            target.write(from + done, result, n);
+            done += n;
+        }
+        return done;
+    }
+
+    //the block's values of term, or null if the kernel can't give the Interpreter's answer for this block
+    private static float[] evaluate(Term term, boolean root, float[][] sources, float[][] invariants, float[][] scratch, int n) {
+        return switch (term) {
+            case Element element -> sources[element.source()];
+            case Invariant invariant -> invariants[invariant.invariant()];
+            case Operation operation -> {
+                float[] l = evaluate(operation.left(), false, sources, invariants, scratch, n);
+                float[] r = l == null ? null : evaluate(operation.right(), false, sources, invariants, scratch, n);
+                yield r == null ? null : apply(operation.op(), l, r, scratch[operation.scratch()], n, root);
+            }
+        };
+    }
+
+    private static float[] apply(MathOpNode.MathOperations op, float[] l, float[] r, float[] out, int n, boolean root) {
+        switch (op) {
+            case add -> {
+                for (int j = 0; j < n; j++) {
+                    out[j] = l[j] + r[j];
+                }
+            }
+            case subtract -> {
+                for (int j = 0; j < n; j++) {
+                    out[j] = l[j] - r[j];
+                }
+            }
+            case multiply -> {
+                for (int j = 0; j < n; j++) {
+                    out[j] = l[j] * r[j];
+                }
+            }
+            case divide -> {
+                for (int j = 0; j < n; j++) {
+                    if (r[j] == 0) {
+                        return null;
+                    }
+                }
+                for (int j = 0; j < n; j++) {
+                    out[j] = l[j] / r[j];
+                }
+            }
+            case modulo -> {
+                for (int j = 0; j < n; j++) {
+                    out[j] = l[j] % r[j];
+                }
+            }
+        }
+        //the last operation is rounded once, either way; a partial result must be exact
+        if (!root) {
+            for (int j = 0; j < n; j++) {
+                if (Math.abs(out[j]) >= largestExact) {
+                    return null;
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,61 @@
+package Interpreter;
+
+import AST.MathOpNode;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The native state behind Tran's atomicNumber class: a number kept in an AtomicLong (see NumberIDT.pack). A whole number
+ * (up to 2^62) is kept exactly, like a NumberIDT's Whole; any other number is kept as its float bits. The lowest bit
+ * says which, so both fit in one long and every update is a single compare-and-set loop - lock-free.
+ */
+class AtomicNumber {
+    private final AtomicLong bits;
+
+    AtomicNumber(NumberIDT initial) {
+        bits = new AtomicLong(NumberIDT.pack(initial));
+    }
+
+    NumberIDT get() {
+        return NumberIDT.unpack(bits.get());
+    }
+
+    void set(NumberIDT value) {
+        bits.set(NumberIDT.pack(value));
+    }
+
+    /**
+     * @return the value after adding
+     */
+    NumberIDT addAndGet(NumberIDT delta) {
+        while (true) {
+            long current = bits.get();
+            long updated = NumberIDT.pack(NumberIDT.math(MathOpNode.MathOperations.add, NumberIDT.unpack(current), delta));
+            if (bits.compareAndSet(current, updated)) {
+                return NumberIDT.unpack(updated);
+            }
+        }
+    }
+
+    /**
+     * Set the value to "updated" if it is currently the same number as "expected" (see NumberIDT.same - NaN never matches).
+     * @return did we set it?
+     */
+    boolean compareAndSet(NumberIDT expected, NumberIDT updated) {
+        long next = NumberIDT.pack(updated);
+        while (true) {
+            long current = bits.get();
+            if (!NumberIDT.unpack(current).same(expected)) {
+                return false;
+            }
+            if (bits.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+}
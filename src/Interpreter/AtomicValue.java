@@ -0,0 +1,66 @@
+package Interpreter;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The native state behind Tran's atomicReference class: any Tran value, swapped with compare-and-set (lock-free).
+ * Simple values are copied in and out. Objects are kept as they are.
+ */
+class AtomicValue {
+    private final AtomicReference<InterpreterDataType> value;
+
+    AtomicValue(InterpreterDataType initial) {
+        value = new AtomicReference<>(initial == null ? null : Interpreter.snapshot(initial));
+    }
+
+    /**
+     * @return the current value, or null if it was never set
+     */
+    InterpreterDataType get() {
+        InterpreterDataType current = value.get();
+        return current == null ? null : Interpreter.snapshot(current);
+    }
+
+    void set(InterpreterDataType updated) {
+        value.set(Interpreter.snapshot(updated));
+    }
+
+    /**
+     * Set the value to "updated" if the current value is the same as "expected" (see same()).
+     * @return did we set it?
+     */
+    boolean compareAndSet(InterpreterDataType expected, InterpreterDataType updated) {
+        InterpreterDataType replacement = Interpreter.snapshot(updated);
+        while (true) {
+            InterpreterDataType current = value.get();
+            if (current == null || !same(current, expected)) {
+                return false;
+            }
+            if (value.compareAndSet(current, replacement)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Simple values are the same if they are equal; objects (and variables referring to them) if they are the same object.
+     */
+    static boolean same(InterpreterDataType a, InterpreterDataType b) {
+        return switch (a) {
+            case NumberIDT n -> b instanceof NumberIDT other && n.same(other);
+            case StringIDT s -> b instanceof StringIDT other && s.length() == other.length() && s.getValue().equals(other.getValue());
+            case BooleanIDT bool -> b instanceof BooleanIDT other && bool.Value == other.Value;
+            case CharIDT c -> b instanceof CharIDT other && c.Value == other.Value;
+            case TaskIDT t -> b instanceof TaskIDT other && t.future == other.future;
+            case ObjectIDT o -> ObjectIDT.of(b).orElse(null) == o;
+            case ReferenceIDT r -> ObjectIDT.of(b).equals(r.refersTo);
+            default -> a == b;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toString(value.get(), "<<<NOT SET>>>");
+    }
+}
@@ -1,12 +1,30 @@
 package Interpreter;
 
 public class BooleanIDT implements InterpreterDataType {
+    //the only true and false that conditions and literals make (constants: never assigned to)
+    public static final BooleanIDT TRUE = constant(true);
+    public static final BooleanIDT FALSE = constant(false);
+
     public boolean Value;
+    boolean constant;
 
     public BooleanIDT(boolean value) {
         this.Value = value;
     }
 
+    private static BooleanIDT constant(boolean value) {
+        BooleanIDT b = new BooleanIDT(value);
+        b.constant = true;
+        return b;
+    }
+
+    /**
+     * @return TRUE or FALSE - not a variable, so copy it before changing it
+     */
+    public static BooleanIDT of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     @Override
     public void Assign(InterpreterDataType in) {
         if (in instanceof BooleanIDT inv) {
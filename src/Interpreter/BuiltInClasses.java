@@ -0,0 +1,490 @@
+package Interpreter;
+
+import AST.ClassNode;
+import AST.TranNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The classes that come with Tran (other than console), written in Java. The Interpreter adds them to every program.
+ *
+ * channel - a bounded queue that any number of threads can send to and receive from:
+ *      new channel() / new channel(capacity)   (the default capacity is 64)
+ *      send(value)                 waits while the channel is full
+ *      ok = trySend(value)         false if the channel is full
+ *      value = receive()           waits while the channel is empty; fails if it is closed and empty
+ *      ok, value = tryReceive()    ok is false if the channel is empty (value is then left alone)
+ *      close(), size(), isClosed()
+ *      loop value = ch             receives until the channel is closed and empty
+ * actor - runs the methods of an object one at a time, on its own virtual thread:
+ *      new actor(object) / new actor(object, mailboxSize)
+ *      send("method", parameters...)           queue a call, waiting while the mailbox is full
+ *      ok = trySend("method", parameters...)   false if the mailbox is full
+ *      t = ask("method", parameters...)        queue a call and get a task; "x = join t" gets its return values
+ *      stop()                                  wait for the queued calls, then stop. Reports a failed send.
+ * Values are copied when they are sent (objects are shared), like the parameters of an async call.
+ *
+ * For state shared between threads (plain members and numbers are not safe to update from several threads at once):
+ * atomicNumber - a number that is updated with compare-and-set. Lock-free. Whole numbers stay exact (see AtomicNumber).
+ *      new atomicNumber() / new atomicNumber(initial)
+ *      get(), set(value), n = add(delta) (returns the new value), ok = compareAndSet(expected, updated)
+ * atomicReference - holds any value (objects by reference). Lock-free.
+ *      new atomicReference() / new atomicReference(initial)
+ *      get(), set(value), ok = compareAndSet(expected, updated)
+ * counter - a sum that is spread over several cells, so threads adding at the same time don't fight over one value.
+ *      Adding never blocks; reading adds up the cells. Best when there are many more adds than reads (metrics).
+ *      A sum of whole numbers is exact (see Counter).
+ *      new counter(), add(delta), increment(), n = sum(), reset()
+ * concurrentMap - a hash map that many threads can use at once. Reads are lock-free; an update locks only one bin.
+ *      Keys are numbers, strings, booleans or characters.
+ *      new concurrentMap()
+ *      put(key, value), value = get(key) (fails if missing), value = getOrDefault(key, default), ok = putIfAbsent(key, value),
+ *      ok = containsKey(key), ok = remove(key), n = add(key, delta) (atomic; a missing key counts as 0), n = size()
+ *      loop key = map         gives each key
+ *
+ * list - a growable list of values, numbered from 0. A list of only whole numbers, only other numbers, only characters
+ *      or only booleans is kept in a primitive array (see ValueList). Values are copied in and out (objects are shared).
+ *      new list()
+ *      value = get(index), set(index, value), add(value), insert(index, value) (the values from index on move up one),
+ *      value = remove(index) (the values after it move down one), n = size(),
+ *      sort() (numbers, decimals, strings, characters or booleans - all of one kind; a long list is sorted in parallel),
+ *      found, index = search(value) (binary search of a sorted list; if it isn't found, index is where it would go)
+ *      loop value = xs        gives each value in order
+ *      A parallel loop (or a method it calls) can read a list, but not change it.
+ *
+ * map - a hash map for one thread (see HashTable). Faster than concurrentMap, and keys may also be objects. An object
+ *      whose class implements hashable (hash() : number, equals(other) : boolean) finds the value of an equal key;
+ *      any other object only finds its own.
+ *      new map()
+ *      put(key, value), value = get(key) (fails if missing), value = getOrDefault(key, default), ok = remove(key),
+ *      ok = containsKey(key), n = size()
+ *      loop key = m           gives each key
+ * set - a hash set for one thread, with the same keys as map.
+ *      new set()
+ *      ok = add(key) (false if it was already there), ok = remove(key), ok = contains(key), n = size()
+ *      loop key = s           gives each key
+ *      A parallel loop (or a method it calls) can read a map or set, but not put, add or remove.
+ *
+ * numberArray - a fixed number of numbers, kept outside the Java heap (see NumberArray), numbered from 0. Each is held
+ *      as a float. There may be more than 2^31 of them.
+ *      new numberArray(size)   (all 0)
+ *      value = get(index), set(index, value), n = size(), fill(value),
+ *      a = copy() (a new array), a = slice(from, until) (a view of part of this array - writes to either show in both),
+ *      n = sum(), n = min(), n = max(), n = dot(other) (other is a numberArray of the same size; a sum or dot product
+ *      of whole numbers is exact)
+ *      loop x = a             gives each number
+ *
+ * range - the numbers from "from" up to (not including) "until", "step" apart. Holds no values, just the three numbers.
+ *      new range(until) (from 0 by 1) / new range(from, until) / new range(from, until, step) (step may be negative)
+ *      n = size()
+ *      loop x = r             gives each number, without running any Tran code
+ *
+ * objectArena - keeps the members of many objects of one class outside the Java heap (see ObjectArena). The class may
+ *      only have number, boolean and character members (numbers are kept exactly, like atomicNumber's). Objects are
+ *      addressed by handle.
+ *      new objectArena("className")
+ *      h = add(object) (copies the members in), load(h, object) (copies them out), value = get(h, "member"),
+ *      set(h, "member", value), remove(h), n = size(), n = bytes(), close() (frees everything)
+ *      loop h = arena         gives each handle
+ *
+ * decimals - settings for the decimal type (see DecimalIDT). Its one method is shared:
+ *      decimals.divideWith(scale, "rounding")  divisions of decimals round to scale places after the point, one of
+ *          halfEven (the default, with scale 10), halfUp, halfDown, up, down, ceiling, floor or exact (fail if rounding
+ *          would be needed). Applies to the whole program.
+ */
+final class BuiltInClasses {
+    private static final int defaultCapacity = 64;
+
+    private BuiltInClasses() {
+    }
+
+    static ClassNode channel() {
+        ClassNode channel = new ClassNode();
+        channel.name = "channel";
+        channel.constructors.add(new NativeConstructor("channel", 0, 1, (object, params) ->
+                object.nativeState = new Channel<InterpreterDataType>(params.isEmpty() ? defaultCapacity : size(params, 0, "Channel capacity"))));
+        channel.methods.add(new NativeMethod("send", 1, (object, params) -> {
+            channelOf(object).send(Interpreter.snapshot(params.get(0)));
+            return List.of();
+        }));
+        channel.methods.add(new NativeMethod("trySend", 1, (object, params) ->
+                List.of(BooleanIDT.of(channelOf(object).trySend(Interpreter.snapshot(params.get(0)))))));
+        channel.methods.add(new NativeMethod("receive", 0, (object, params) -> {
+            InterpreterDataType value = channelOf(object).receive();
+            if (value == null) {
+                throw new RuntimeException("Cannot receive from a closed, empty channel");
+            }
+            return List.of(value);
+        }));
+        channel.methods.add(new NativeMethod("tryReceive", 0, (object, params) -> {
+            InterpreterDataType value = channelOf(object).tryReceive();
+            return value == null ? List.of(BooleanIDT.FALSE) : List.of(BooleanIDT.TRUE, value);
+        }));
+        channel.methods.add(new NativeMethod("close", 0, (object, params) -> {
+            channelOf(object).close();
+            return List.of();
+        }));
+        channel.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(new NumberIDT(channelOf(object).size()))));
+        channel.methods.add(new NativeMethod("isClosed", 0, (object, params) -> List.of(BooleanIDT.of(channelOf(object).isClosed()))));
+        return channel;
+    }
+
+    static ClassNode actor(Interpreter interpreter) {
+        ClassNode actor = new ClassNode();
+        actor.name = "actor";
+        actor.constructors.add(new NativeConstructor("actor", 1, 2, (object, params) ->
+                object.nativeState = new Actor(interpreter, NativeMethod.object(params, 0, "The object of an actor"),
+                        params.size() == 1 ? defaultCapacity : size(params, 1, "Mailbox size"))));
+        actor.methods.add(new NativeMethod("send", 1, Integer.MAX_VALUE, (object, params) -> {
+            actorOf(object).send(NativeMethod.string(params, 0, "Method name"), messageParameters(params));
+            return List.of();
+        }));
+        actor.methods.add(new NativeMethod("trySend", 1, Integer.MAX_VALUE, (object, params) ->
+                List.of(BooleanIDT.of(actorOf(object).trySend(NativeMethod.string(params, 0, "Method name"), messageParameters(params))))));
+        actor.methods.add(new NativeMethod("ask", 1, Integer.MAX_VALUE, (object, params) ->
+                List.of(new TaskIDT(actorOf(object).ask(NativeMethod.string(params, 0, "Method name"), messageParameters(params))))));
+        actor.methods.add(new NativeMethod("stop", 0, (object, params) -> {
+            actorOf(object).stop();
+            return List.of();
+        }));
+        return actor;
+    }
+
+    static ClassNode atomicNumber() {
+        ClassNode atomic = new ClassNode();
+        atomic.name = "atomicNumber";
+        atomic.constructors.add(new NativeConstructor("atomicNumber", 0, 1, (object, params) ->
+                object.nativeState = new AtomicNumber(params.isEmpty() ? NumberIDT.of(0) : NativeMethod.exactNumber(params, 0, "Initial value"))));
+        atomic.methods.add(new NativeMethod("get", 0, (object, params) -> List.of(atomicNumberOf(object).get())));
+        atomic.methods.add(new NativeMethod("set", 1, (object, params) -> {
+            atomicNumberOf(object).set(NativeMethod.exactNumber(params, 0, "Value"));
+            return List.of();
+        }));
+        atomic.methods.add(new NativeMethod("add", 1, (object, params) ->
+                List.of(atomicNumberOf(object).addAndGet(NativeMethod.exactNumber(params, 0, "Delta")))));
+        atomic.methods.add(new NativeMethod("compareAndSet", 2, (object, params) ->
+                List.of(BooleanIDT.of(atomicNumberOf(object).compareAndSet(NativeMethod.exactNumber(params, 0, "Expected value"), NativeMethod.exactNumber(params, 1, "New value"))))));
+        return atomic;
+    }
+
+    static ClassNode atomicReference() {
+        ClassNode atomic = new ClassNode();
+        atomic.name = "atomicReference";
+        atomic.constructors.add(new NativeConstructor("atomicReference", 0, 1, (object, params) ->
+                object.nativeState = new AtomicValue(params.isEmpty() ? null : params.get(0))));
+        atomic.methods.add(new NativeMethod("get", 0, (object, params) -> {
+            InterpreterDataType value = atomicValueOf(object).get();
+            if (value == null) {
+                throw new RuntimeException("atomicReference was never set");
+            }
+            return List.of(value);
+        }));
+        atomic.methods.add(new NativeMethod("set", 1, (object, params) -> {
+            atomicValueOf(object).set(params.get(0));
+            return List.of();
+        }));
+        atomic.methods.add(new NativeMethod("compareAndSet", 2, (object, params) ->
+                List.of(BooleanIDT.of(atomicValueOf(object).compareAndSet(params.get(0), params.get(1))))));
+        return atomic;
+    }
+
+    static ClassNode counter() {
+        ClassNode counter = new ClassNode();
+        counter.name = "counter";
+        counter.constructors.add(new NativeConstructor("counter", 0, 0, (object, params) -> object.nativeState = new Counter()));
+        counter.methods.add(new NativeMethod("add", 1, (object, params) -> {
+            counterOf(object).add(NativeMethod.exactNumber(params, 0, "Delta"));
+            return List.of();
+        }));
+        counter.methods.add(new NativeMethod("increment", 0, (object, params) -> {
+            counterOf(object).add(NumberIDT.of(1));
+            return List.of();
+        }));
+        counter.methods.add(new NativeMethod("sum", 0, (object, params) -> List.of(counterOf(object).sum())));
+        counter.methods.add(new NativeMethod("reset", 0, (object, params) -> {
+            counterOf(object).reset();
+            return List.of();
+        }));
+        return counter;
+    }
+
+    static ClassNode concurrentMap() {
+        ClassNode map = new ClassNode();
+        map.name = "concurrentMap";
+        map.constructors.add(new NativeConstructor("concurrentMap", 0, 0, (object, params) -> object.nativeState = new SharedMap()));
+        map.methods.add(new NativeMethod("put", 2, (object, params) -> {
+            mapOf(object).put(SharedMap.key(params.get(0)), Interpreter.snapshot(params.get(1)));
+            return List.of();
+        }));
+        map.methods.add(new NativeMethod("get", 1, (object, params) -> {
+            InterpreterDataType value = mapOf(object).get(SharedMap.key(params.get(0)));
+            if (value == null) {
+                throw new RuntimeException("No key " + params.get(0) + " in concurrentMap");
+            }
+            return List.of(Interpreter.snapshot(value));
+        }));
+        map.methods.add(new NativeMethod("getOrDefault", 2, (object, params) -> {
+            InterpreterDataType value = mapOf(object).get(SharedMap.key(params.get(0)));
+            return List.of(Interpreter.snapshot(value == null ? params.get(1) : value));
+        }));
+        map.methods.add(new NativeMethod("putIfAbsent", 2, (object, params) ->
+                List.of(BooleanIDT.of(mapOf(object).putIfAbsent(SharedMap.key(params.get(0)), Interpreter.snapshot(params.get(1))) == null))));
+        map.methods.add(new NativeMethod("containsKey", 1, (object, params) ->
+                List.of(BooleanIDT.of(mapOf(object).containsKey(SharedMap.key(params.get(0)))))));
+        map.methods.add(new NativeMethod("remove", 1, (object, params) ->
+                List.of(BooleanIDT.of(mapOf(object).remove(SharedMap.key(params.get(0))) != null))));
+        map.methods.add(new NativeMethod("add", 2, (object, params) ->
+                List.of(mapOf(object).add(SharedMap.key(params.get(0)), NativeMethod.exactNumber(params, 1, "Delta")))));
+        map.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(new NumberIDT(mapOf(object).size()))));
+        return map;
+    }
+
+    static ClassNode list() {
+        ClassNode list = new ClassNode();
+        list.name = "list";
+        list.constructors.add(new NativeConstructor("list", 0, 0, (object, params) -> object.nativeState = new ValueList()));
+        list.methods.add(new NativeMethod("get", 1, (object, params) -> List.of(listOf(object).get(index(params, 0)))));
+        list.methods.add(new NativeMethod("set", 2, (object, params) -> {
+            listOf(object).set(index(params, 0), params.get(1));
+            return List.of();
+        }).changing());
+        list.methods.add(new NativeMethod("add", 1, (object, params) -> {
+            listOf(object).add(params.get(0));
+            return List.of();
+        }).changing());
+        list.methods.add(new NativeMethod("insert", 2, (object, params) -> {
+            listOf(object).insert(index(params, 0), params.get(1));
+            return List.of();
+        }).changing());
+        list.methods.add(new NativeMethod("remove", 1, (object, params) -> List.of(listOf(object).remove(index(params, 0)))).changing());
+        list.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(NumberIDT.of(listOf(object).size()))));
+        list.methods.add(new NativeMethod("sort", 0, (object, params) -> {
+            listOf(object).sort();
+            return List.of();
+        }).changing());
+        list.methods.add(new NativeMethod("search", 1, (object, params) -> {
+            int found = listOf(object).search(params.get(0));
+            return found >= 0 ? List.of(BooleanIDT.TRUE, NumberIDT.of(found)) : List.of(BooleanIDT.FALSE, NumberIDT.of(-found - 1));
+        }));
+        return list;
+    }
+
+    static ClassNode map(Interpreter interpreter) {
+        ClassNode map = new ClassNode();
+        map.name = "map";
+        map.constructors.add(new NativeConstructor("map", 0, 0, (object, params) -> object.nativeState = new HashTable(interpreter, true)));
+        map.methods.add(new NativeMethod("put", 2, (object, params) -> {
+            tableOf(object).put(params.get(0), params.get(1));
+            return List.of();
+        }).changing());
+        map.methods.add(new NativeMethod("get", 1, (object, params) -> {
+            InterpreterDataType value = tableOf(object).get(params.get(0));
+            if (value == null) {
+                throw new RuntimeException("No key " + params.get(0) + " in map");
+            }
+            return List.of(value);
+        }));
+        map.methods.add(new NativeMethod("getOrDefault", 2, (object, params) -> {
+            InterpreterDataType value = tableOf(object).get(params.get(0));
+            return List.of(value == null ? Interpreter.snapshot(params.get(1)) : value);
+        }));
+        map.methods.add(new NativeMethod("remove", 1, (object, params) -> List.of(BooleanIDT.of(tableOf(object).remove(params.get(0))))).changing());
+        map.methods.add(new NativeMethod("containsKey", 1, (object, params) -> List.of(BooleanIDT.of(tableOf(object).contains(params.get(0))))));
+        map.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(NumberIDT.of(tableOf(object).size()))));
+        return map;
+    }
+
+    static ClassNode set(Interpreter interpreter) {
+        ClassNode set = new ClassNode();
+        set.name = "set";
+        set.constructors.add(new NativeConstructor("set", 0, 0, (object, params) -> object.nativeState = new HashTable(interpreter, false)));
+        set.methods.add(new NativeMethod("add", 1, (object, params) -> List.of(BooleanIDT.of(tableOf(object).put(params.get(0), null)))).changing());
+        set.methods.add(new NativeMethod("remove", 1, (object, params) -> List.of(BooleanIDT.of(tableOf(object).remove(params.get(0))))).changing());
+        set.methods.add(new NativeMethod("contains", 1, (object, params) -> List.of(BooleanIDT.of(tableOf(object).contains(params.get(0))))));
+        set.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(NumberIDT.of(tableOf(object).size()))));
+        return set;
+    }
+
+    static ClassNode numberArray() {
+        ClassNode array = new ClassNode();
+        array.name = "numberArray";
+        array.constructors.add(new NativeConstructor("numberArray", 1, 1, (object, params) ->
+                object.nativeState = new NumberArray(position(params, 0, "numberArray size"))));
+        array.methods.add(new NativeMethod("get", 1, (object, params) ->
+                List.of(new NumberIDT(numberArrayOf(object).get(position(params, 0, "numberArray index"))))));
+        array.methods.add(new NativeMethod("set", 2, (object, params) -> {
+            numberArrayOf(object).set(position(params, 0, "numberArray index"), NativeMethod.number(params, 1, "Value"));
+            return List.of();
+        }));
+        array.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(NumberIDT.of(numberArrayOf(object).length))));
+        array.methods.add(new NativeMethod("fill", 1, (object, params) -> {
+            numberArrayOf(object).fill(NativeMethod.number(params, 0, "Value"));
+            return List.of();
+        }));
+        array.methods.add(new NativeMethod("copy", 0, (object, params) -> List.of(withState(object, numberArrayOf(object).copy()))));
+        array.methods.add(new NativeMethod("slice", 2, (object, params) ->
+                List.of(withState(object, numberArrayOf(object).slice(position(params, 0, "Slice start"), position(params, 1, "Slice end"))))));
+        array.methods.add(new NativeMethod("sum", 0, (object, params) -> List.of(numberArrayOf(object).sum())));
+        array.methods.add(new NativeMethod("min", 0, (object, params) -> List.of(new NumberIDT(numberArrayOf(object).extreme(false)))));
+        array.methods.add(new NativeMethod("max", 0, (object, params) -> List.of(new NumberIDT(numberArrayOf(object).extreme(true)))));
+        array.methods.add(new NativeMethod("dot", 1, (object, params) -> {
+            if (!(NativeMethod.object(params, 0, "Other array").nativeState instanceof NumberArray other)) {
+                throw new RuntimeException("dot() takes a numberArray, not " + params.get(0));
+            }
+            return List.of(numberArrayOf(object).dot(other));
+        }));
+        return array;
+    }
+
+    static ClassNode objectArena(TranNode top) {
+        ClassNode arena = new ClassNode();
+        arena.name = "objectArena";
+        arena.constructors.add(new NativeConstructor("objectArena", 1, 1, (object, params) -> {
+            String className = NativeMethod.string(params, 0, "Class name");
+            ClassNode classNode = top.Classes.stream().filter(c -> c.name.equals(className)).findFirst()
+                    .orElseThrow(() -> new RuntimeException("Class not found: " + className));
+            object.nativeState = new ObjectArena(classNode);
+        }));
+        arena.methods.add(new NativeMethod("add", 1, (object, params) ->
+                List.of(new NumberIDT(arenaOf(object).add(NativeMethod.object(params, 0, "Object"))))));
+        arena.methods.add(new NativeMethod("load", 2, (object, params) -> {
+            arenaOf(object).load(handle(params, 0), NativeMethod.object(params, 1, "Object"));
+            return List.of();
+        }));
+        arena.methods.add(new NativeMethod("get", 2, (object, params) ->
+                List.of(arenaOf(object).get(handle(params, 0), NativeMethod.string(params, 1, "Member name")))));
+        arena.methods.add(new NativeMethod("set", 3, (object, params) -> {
+            arenaOf(object).set(handle(params, 0), NativeMethod.string(params, 1, "Member name"), params.get(2));
+            return List.of();
+        }));
+        arena.methods.add(new NativeMethod("remove", 1, (object, params) -> {
+            arenaOf(object).remove(handle(params, 0));
+            return List.of();
+        }));
+        arena.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(new NumberIDT(arenaOf(object).size()))));
+        arena.methods.add(new NativeMethod("bytes", 0, (object, params) -> List.of(new NumberIDT(arenaOf(object).bytes()))));
+        arena.methods.add(new NativeMethod("close", 0, (object, params) -> {
+            arenaOf(object).close();
+            return List.of();
+        }));
+        return arena;
+    }
+
+    static ClassNode range() {
+        ClassNode range = new ClassNode();
+        range.name = "range";
+        range.constructors.add(new NativeConstructor("range", 1, 3, (object, params) -> {
+            NumberIDT from = params.size() == 1 ? NumberIDT.of(0) : NativeMethod.exactNumber(params, 0, "Range start");
+            NumberIDT until = NativeMethod.exactNumber(params, params.size() == 1 ? 0 : 1, "Range end");
+            NumberIDT step = params.size() == 3 ? NativeMethod.exactNumber(params, 2, "Range step") : NumberIDT.of(1);
+            object.nativeState = new Range(from, until, step);
+        }));
+        range.methods.add(new NativeMethod("size", 0, (object, params) -> List.of(new NumberIDT(((Range) object.nativeState).count))));
+        return range;
+    }
+
+    static ClassNode decimals(Interpreter interpreter) {
+        ClassNode decimals = new ClassNode();
+        decimals.name = "decimals";
+        decimals.methods.add(NativeMethod.shared("divideWith", 2, (object, params) -> {
+            float scale = NativeMethod.number(params, 0, "Decimal division scale");
+            if (scale != (int) scale) {
+                throw new RuntimeException("Decimal division scale must be a whole number, not " + params.get(0));
+            }
+            interpreter.decimalDivision = DecimalIDT.Division.of((int) scale, NativeMethod.string(params, 1, "Decimal rounding"));
+            return List.of();
+        }));
+        return decimals;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Channel<InterpreterDataType> channelOf(ObjectIDT object) {
+        return (Channel<InterpreterDataType>) object.nativeState;
+    }
+
+    private static Actor actorOf(ObjectIDT object) {
+        return (Actor) object.nativeState;
+    }
+
+    private static AtomicNumber atomicNumberOf(ObjectIDT object) {
+        return (AtomicNumber) object.nativeState;
+    }
+
+    private static AtomicValue atomicValueOf(ObjectIDT object) {
+        return (AtomicValue) object.nativeState;
+    }
+
+    private static Counter counterOf(ObjectIDT object) {
+        return (Counter) object.nativeState;
+    }
+
+    private static SharedMap mapOf(ObjectIDT object) {
+        return (SharedMap) object.nativeState;
+    }
+
+    private static ValueList listOf(ObjectIDT object) {
+        return (ValueList) object.nativeState;
+    }
+
+    private static HashTable tableOf(ObjectIDT object) {
+        return (HashTable) object.nativeState;
+    }
+
+    private static NumberArray numberArrayOf(ObjectIDT object) {
+        return (NumberArray) object.nativeState;
+    }
+
+    //a new object of the same built-in class as "object", for the given state
+    private static ObjectIDT withState(ObjectIDT object, Object state) {
+        ObjectIDT result = new ObjectIDT(object.astNode);
+        result.nativeState = state;
+        return result;
+    }
+
+    private static ObjectArena arenaOf(ObjectIDT object) {
+        return (ObjectArena) object.nativeState;
+    }
+
+    private static int handle(List<InterpreterDataType> params, int index) {
+        NumberIDT handle = NativeMethod.exactNumber(params, index, "Handle");
+        if (!handle.IsWhole || handle.Whole != (int) handle.Whole) {
+            throw new RuntimeException("Handle must be a whole number, not " + handle);
+        }
+        return (int) handle.Whole;
+    }
+
+    private static int index(List<InterpreterDataType> params, int index) {
+        NumberIDT number = NativeMethod.exactNumber(params, index, "List index");
+        if (!number.IsWhole || number.Whole != (int) number.Whole) {
+            throw new RuntimeException("List index must be a whole number, not " + number);
+        }
+        return (int) number.Whole;
+    }
+
+    //a whole number of at least 0, which may be past 2^31
+    private static long position(List<InterpreterDataType> params, int index, String what) {
+        NumberIDT number = NativeMethod.exactNumber(params, index, what);
+        if (!number.IsWhole || number.Whole < 0) {
+            throw new RuntimeException(what + " must be a whole number of at least 0, not " + number);
+        }
+        return number.Whole;
+    }
+
+    private static int size(List<InterpreterDataType> params, int index, String what) {
+        float size = NativeMethod.number(params, index, what);
+        if (size < 1 || size != Math.floor(size)) {
+            throw new RuntimeException(what + " must be a whole number of at least 1, not " + size);
+        }
+        return (int) size;
+    }
+
+    //everything after the method name, copied
+    private static List<InterpreterDataType> messageParameters(List<InterpreterDataType> params) {
+        List<InterpreterDataType> copies = new ArrayList<>();
+        for (InterpreterDataType param : params.subList(1, params.size())) {
+            copies.add(Interpreter.snapshot(param));
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,218 @@
+package Interpreter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free queue for any number of senders and receivers (the native state behind Tran's channel class,
+ * and the mailbox of an actor).
+ *
+ * Every slot has a sequence number that says whose turn it is: the sender that claimed position p may fill slot
+ * p % slots once its sequence is p, and the receiver that claimed p may empty it once its sequence is p + 1.
+ * Senders and receivers claim positions with a compare-and-set, so neither side ever takes a lock. There are always at
+ * least 2 slots (with 1, a full slot and a free one would have the same sequence); a sender also checks that it stays
+ * within the capacity.
+ *
+ * The blocking calls park the thread (cheap for virtual threads) and are woken by the other side. A parked thread
+ * also wakes up on its own now and then, so a missed wake-up costs a little latency, never a hang. A thread that is
+ * interrupted while it waits (a cancelled async call - see TaskScope) stops waiting and fails.
+ * Iterating a channel receives until the channel is closed and empty.
+ */
+public class Channel<T> implements Iterable<T> {
+    private static final long parkNanos = 1_000_000;
+
+    private final int capacity;
+    private final int slots;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong sendPosition = new AtomicLong();
+    private final AtomicLong receivePosition = new AtomicLong();
+    private final ConcurrentLinkedQueue<Thread> waitingSenders = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Thread> waitingReceivers = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    public Channel(int capacity) {
+        if (capacity < 1) {
+            throw new RuntimeException("A channel needs room for at least one value, not " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = Math.max(2, capacity);
+        this.items = new AtomicReferenceArray<>(slots);
+        this.sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add a value if there is room. Never blocks.
+     * @return false if the channel is full
+     */
+    public boolean trySend(T value) {
+        if (closed) {
+            throw new RuntimeException("Cannot send on a closed channel");
+        }
+        long position = sendPosition.get();
+        while (true) {
+            int slot = (int) (position % slots);
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (position - receivePosition.get() >= capacity) {
+                    return false;
+                }
+                if (sendPosition.compareAndSet(position, position + 1)) {
+                    items.set(slot, value);
+                    sequences.set(slot, position + 1);
+                    wakeOne(waitingReceivers);
+                    return true;
+                }
+                position = sendPosition.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = sendPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Take a value if there is one. Never blocks.
+     * @return the value, or null if the channel is empty
+     */
+    public T tryReceive() {
+        long position = receivePosition.get();
+        while (true) {
+            int slot = (int) (position % slots);
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (receivePosition.compareAndSet(position, position + 1)) {
+                    T value = items.getAndSet(slot, null);
+                    sequences.set(slot, position + slots);
+                    wakeOne(waitingSenders);
+                    return value;
+                }
+                position = receivePosition.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = receivePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Add a value, waiting for room if the channel is full.
+     */
+    public void send(T value) {
+        while (!trySend(value)) {
+            await(waitingSenders, true);
+        }
+    }
+
+    /**
+     * Take a value, waiting for one if the channel is empty.
+     * @return the value, or null if the channel is closed and empty
+     */
+    public T receive() {
+        while (true) {
+            T value = tryReceive();
+            if (value != null) {
+                return value;
+            }
+            if (closed) {
+                //a send may have finished between our tryReceive and reading closed
+                return tryReceive();
+            }
+            await(waitingReceivers, false);
+        }
+    }
+
+    /**
+     * No more values can be sent. Receivers still get what is already in the channel.
+     */
+    public void close() {
+        closed = true;
+        wakeAll(waitingSenders);
+        wakeAll(waitingReceivers);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * How many values are in the channel right now (only a hint while other threads are sending or receiving).
+     */
+    public int size() {
+        long size = sendPosition.get() - receivePosition.get();
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    next = receive();
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T value = next;
+                next = null;
+                return value;
+            }
+        };
+    }
+
+    //park until the other side wakes us. We register first and then check again, so a wake-up can't slip in between.
+    private void await(ConcurrentLinkedQueue<Thread> waiters, boolean sending) {
+        Thread me = Thread.currentThread();
+        //(parking returns at once for an interrupted thread, so without this it would spin forever)
+        if (me.isInterrupted()) {
+            throw new RuntimeException("Interrupted while waiting to " + (sending ? "send to" : "receive from") + " a channel");
+        }
+        waiters.add(me);
+        boolean ready = sending ? size() < capacity : size() > 0;
+        if (!ready && !closed) {
+            LockSupport.parkNanos(this, parkNanos);
+        }
+        waiters.remove(me);
+    }
+
+    private static void wakeOne(ConcurrentLinkedQueue<Thread> waiters) {
+        Thread waiter = waiters.poll();
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    private static void wakeAll(ConcurrentLinkedQueue<Thread> waiters) {
+        Thread waiter;
+        while ((waiter = waiters.poll()) != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "channel(" + size() + "/" + capacity + (closed ? ", closed" : "") + ")";
+    }
+}
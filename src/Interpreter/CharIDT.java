@@ -2,6 +2,8 @@ package Interpreter;
 
 public class CharIDT implements InterpreterDataType {
     public char Value;
+    //a literal (see Linker's constant pool)
+    boolean constant;
 
     public CharIDT(char value) {
         Value = value;
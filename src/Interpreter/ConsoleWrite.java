@@ -7,14 +7,17 @@ import java.util.List;
 
 public class ConsoleWrite extends BuiltInMethodDeclarationNode {
     public LinkedList<String> console = new LinkedList<>();
+    //also print each line to System.out (off for a program run by the server: its output goes back to the client)
+    public volatile boolean echo = true;
     @Override
-    public List<InterpreterDataType> Execute(List<InterpreterDataType> params) {
+    public synchronized List<InterpreterDataType> Execute(List<InterpreterDataType> params) {
         StringBuilder sb = new StringBuilder();
         for (var i : params) {
             sb.append(i.toString());
-            System.out.print(i.toString());
         }
-        System.out.println();
+        if (echo) {
+            System.out.println(sb);
+        }
         console.add(sb.toString());
         return List.of();
     }
@@ -0,0 +1,48 @@
+package Interpreter;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The native state behind Tran's counter class: a sum spread over several cells, so threads adding at the same time
+ * don't fight over one value. Whole numbers are added up exactly in a LongAdder; any other number goes into a
+ * DoubleAdder. While only whole numbers have been added (or the others add up to a whole number), the sum is exact.
+ */
+final class Counter {
+    //a whole number this big could overflow the long sum, so it is added as a double
+    private static final long largestWhole = 1L << 53;
+
+    private final LongAdder wholes = new LongAdder();
+    private final DoubleAdder others = new DoubleAdder();
+
+    void add(NumberIDT delta) {
+        if (delta.IsWhole && Math.abs(delta.Whole) < largestWhole) {
+            wholes.add(delta.Whole);
+        } else {
+            others.add(delta.Value);
+        }
+    }
+
+    NumberIDT sum() {
+        long whole = wholes.sum();
+        double other = others.sum();
+        if (other == Math.rint(other) && Math.abs(other) < largestWhole) {
+            try {
+                return NumberIDT.of(Math.addExact(whole, (long) other));
+            } catch (ArithmeticException tooBig) {
+                //a float, then
+            }
+        }
+        return new NumberIDT((float) (whole + other));
+    }
+
+    void reset() {
+        wholes.reset();
+        others.reset();
+    }
+
+    @Override
+    public String toString() {
+        return sum().toString();
+    }
+}
@@ -0,0 +1,250 @@
+package Interpreter;
+
+import AST.MathOpNode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A Tran decimal: an exact decimal number, for money and anything else that must add up to the cent. The value is
+ * Unscaled / 10^Scale (19.99 is 1999 with scale 2) while Unscaled fits in a long, so add, subtract, multiply and compare
+ * are long math. A result that doesn't fit moves to a BigDecimal (Big, with Unscaled and Scale unused), and comes back
+ * to a long when it fits again.
+ *
+ * Add, subtract and multiply are exact (a product's scale is the sum of the scales, like BigDecimal). Divide rounds to
+ * a Division: a scale and a rounding mode, set for the whole program with decimals.divideWith(scale, "mode").
+ *
+ * A decimal variable takes numbers (a number that isn't whole is read the way it prints, so 0.1 is exactly 0.1) and
+ * strings ("19.99"). Math and compares of a decimal with a number give decimals.
+ */
+public class DecimalIDT implements InterpreterDataType {
+    public long Unscaled;
+    public int Scale;
+    public BigDecimal Big;
+
+    //10^0 .. 10^18
+    private static final long[] powersOfTen = new long[19];
+
+    static {
+        powersOfTen[0] = 1;
+        for (int i = 1; i < powersOfTen.length; i++) {
+            powersOfTen[i] = powersOfTen[i - 1] * 10;
+        }
+    }
+
+    /**
+     * How a division rounds: to "scale" digits after the point, using "rounding".
+     */
+    public record Division(int scale, RoundingMode rounding) {
+        public static final Division standard = new Division(10, RoundingMode.HALF_EVEN);
+
+        public static Division of(int scale, String mode) {
+            if (scale < 0 || scale > 1000) {
+                throw new RuntimeException("A decimal division's scale must be 0 to 1000, not " + scale);
+            }
+            RoundingMode rounding = switch (mode) {
+                case "halfEven" -> RoundingMode.HALF_EVEN;
+                case "halfUp" -> RoundingMode.HALF_UP;
+                case "halfDown" -> RoundingMode.HALF_DOWN;
+                case "up" -> RoundingMode.UP;
+                case "down" -> RoundingMode.DOWN;
+                case "ceiling" -> RoundingMode.CEILING;
+                case "floor" -> RoundingMode.FLOOR;
+                case "exact" -> RoundingMode.UNNECESSARY;
+                default -> throw new RuntimeException("Unknown rounding " + mode + " (halfEven, halfUp, halfDown, up, down, ceiling, floor or exact)");
+            };
+            return new Division(scale, rounding);
+        }
+    }
+
+    public DecimalIDT(long unscaled, int scale) {
+        set(unscaled, scale);
+    }
+
+    public DecimalIDT(BigDecimal value) {
+        set(value);
+    }
+
+    private void set(long unscaled, int scale) {
+        Unscaled = unscaled;
+        Scale = scale;
+        Big = null;
+    }
+
+    private void set(BigDecimal value) {
+        if (value.unscaledValue().bitLength() < 64) {
+            set(value.unscaledValue().longValue(), value.scale());
+        } else {
+            Big = value;
+        }
+    }
+
+    public BigDecimal toBigDecimal() {
+        return Big != null ? Big : BigDecimal.valueOf(Unscaled, Scale);
+    }
+
+    public DecimalIDT copy() {
+        return Big != null ? new DecimalIDT(Big) : new DecimalIDT(Unscaled, Scale);
+    }
+
+    /**
+     * A decimal from a decimal, a number or a string.
+     */
+    static DecimalIDT of(InterpreterDataType value) {
+        return switch (value) {
+            case DecimalIDT d -> d;
+            case NumberIDT n when n.IsWhole -> new DecimalIDT(n.Whole, 0);
+            case NumberIDT n -> {
+                if (Float.isNaN(n.Value) || Float.isInfinite(n.Value)) {
+                    throw new RuntimeException("Cannot make a decimal from " + n);
+                }
+                yield new DecimalIDT(new BigDecimal(Float.toString(n.Value)));
+            }
+            case StringIDT s -> {
+                try {
+                    yield new DecimalIDT(new BigDecimal(s.getValue().trim()));
+                } catch (NumberFormatException e) {
+                    throw new RuntimeException("\"" + s + "\" is not a decimal");
+                }
+            }
+            default -> throw new RuntimeException("Cannot make a decimal from " + value);
+        };
+    }
+
+    /**
+     * l op r, exactly - except a division, which rounds the way "division" says.
+     */
+    public static DecimalIDT math(MathOpNode.MathOperations op, DecimalIDT l, DecimalIDT r, Division division) {
+        if (l.Big == null && r.Big == null) {
+            try {
+                DecimalIDT result = longMath(op, l, r, division);
+                if (result != null) {
+                    return result;
+                }
+            } catch (ArithmeticException tooBig) {
+                //do it with BigDecimals
+            }
+        }
+        BigDecimal a = l.toBigDecimal();
+        BigDecimal b = r.toBigDecimal();
+        if ((op == MathOpNode.MathOperations.divide || op == MathOpNode.MathOperations.modulo) && b.signum() == 0) {
+            throw new RuntimeException("Division by zero");
+        }
+        try {
+            return new DecimalIDT(switch (op) {
+                case add -> a.add(b);
+                case subtract -> a.subtract(b);
+                case multiply -> a.multiply(b);
+                case divide -> a.divide(b, division.scale(), division.rounding());
+                case modulo -> a.remainder(b);
+            });
+        } catch (ArithmeticException inexact) {
+            throw new RuntimeException("Decimal " + a + " / " + b + " doesn't come out exactly to " + division.scale() + " places");
+        }
+    }
+
+    //null if it has to be done with BigDecimals; throws ArithmeticException if a long overflows
+    private static DecimalIDT longMath(MathOpNode.MathOperations op, DecimalIDT l, DecimalIDT r, Division division) {
+        switch (op) {
+            case add, subtract, modulo -> {
+                int scale = Math.max(l.Scale, r.Scale);
+                long a = rescale(l, scale);
+                long b = rescale(r, scale);
+                return switch (op) {
+                    case add -> new DecimalIDT(Math.addExact(a, b), scale);
+                    case subtract -> new DecimalIDT(Math.subtractExact(a, b), scale);
+                    default -> {
+                        if (b == 0) {
+                            throw new RuntimeException("Division by zero");
+                        }
+                        yield new DecimalIDT(a % b, scale);
+                    }
+                };
+            }
+            case multiply -> {
+                return new DecimalIDT(Math.multiplyExact(l.Unscaled, r.Unscaled), Math.addExact(l.Scale, r.Scale));
+            }
+            default -> {
+                if (r.Unscaled == 0) {
+                    throw new RuntimeException("Division by zero");
+                }
+                //a / b to "scale" places is (a * 10^shift) / b, with shift = scale - (a's scale - b's scale)
+                int shift = division.scale() - l.Scale + r.Scale;
+                if (shift < 0 || shift >= powersOfTen.length || division.rounding() == RoundingMode.UNNECESSARY) {
+                    return null;
+                }
+                long numerator = Math.multiplyExact(l.Unscaled, powersOfTen[shift]);
+                return new DecimalIDT(divideAndRound(numerator, r.Unscaled, division.rounding()), division.scale());
+            }
+        }
+    }
+
+    private static long rescale(DecimalIDT d, int scale) {
+        int shift = scale - d.Scale;
+        if (shift == 0) {
+            return d.Unscaled;
+        }
+        if (shift >= powersOfTen.length) {
+            throw new ArithmeticException("scale");
+        }
+        return Math.multiplyExact(d.Unscaled, powersOfTen[shift]);
+    }
+
+    private static long divideAndRound(long n, long d, RoundingMode rounding) {
+        if (n == Long.MIN_VALUE || d == Long.MIN_VALUE) {
+            throw new ArithmeticException("overflow");
+        }
+        long q = n / d;
+        long remainder = Math.abs(n % d);
+        if (remainder == 0) {
+            return q;
+        }
+        int sign = (n < 0) == (d < 0) ? 1 : -1;
+        //how the part that is cut off compares to a half
+        int half = Long.compare(remainder, Math.abs(d) - remainder);
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (q & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("inexact");
+        };
+        return awayFromZero ? q + sign : q;
+    }
+
+    /**
+     * @return negative, 0 or positive as l is less than, equal to or more than r
+     */
+    public static int compare(DecimalIDT l, DecimalIDT r) {
+        if (l.Big == null && r.Big == null) {
+            if (l.Scale == r.Scale) {
+                return Long.compare(l.Unscaled, r.Unscaled);
+            }
+            int scale = Math.max(l.Scale, r.Scale);
+            try {
+                return Long.compare(rescale(l, scale), rescale(r, scale));
+            } catch (ArithmeticException tooBig) {
+                //compare BigDecimals
+            }
+        }
+        return l.toBigDecimal().compareTo(r.toBigDecimal());
+    }
+
+    @Override
+    public void Assign(InterpreterDataType in) {
+        DecimalIDT value = of(in);
+        if (value.Big != null) {
+            Big = value.Big;
+        } else {
+            set(value.Unscaled, value.Scale);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
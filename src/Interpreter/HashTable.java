@@ -0,0 +1,323 @@
+package Interpreter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * The native state behind Tran's map and set classes: a hash table with open addressing (every entry is in the arrays
+ * themselves - there are no chains of nodes) and Robin Hood hashing. An entry sits at or after its "home" slot; while
+ * inserting, an entry that is further from its home takes the slot of one that is closer to its own, so every entry
+ * is close to home and a lookup can stop as soon as it reaches an entry closer to home than the key would be. Removing
+ * shifts the entries after the hole back one, so there are no tombstones. Each slot keeps the key's hash (0 for an empty
+ * slot), so probing compares ints and only compares keys when the hashes match.
+ *
+ * Keys are numbers, strings, booleans and characters (held as their SharedMap.key) and objects. An object whose class
+ * implements "hashable" is compared by its own Tran methods: its hash() is run once when it is put or looked up, and
+ * its equals(other) for each key of the same class with the same hash - so an equal object finds the value. Any other
+ * object is a key by identity: the same object, not an object with the same members. A key object shouldn't change
+ * in a way that changes its hash() while it is in the table. While every key is a whole number the keys are kept in a
+ * long[], so a table of numbers never boxes them.
+ *
+ * A set is a table without values. Values are copied in and out (objects are shared), like concurrentMap's. A table is
+ * not safe to change from several threads at once.
+ */
+final class HashTable implements Iterable<InterpreterDataType> {
+    private static final int firstCapacity = 16;
+    //grow when more than 7/8 full (Robin Hood keeps probes short even when nearly full)
+    private static final int loadNumerator = 7;
+    private static final int loadDenominator = 8;
+
+    //runs the hash() and equals(other) of hashable keys
+    private final Interpreter interpreter;
+
+    private int[] hashes = new int[firstCapacity];
+    //wholeKeys until a key that isn't a whole number is added, then keys
+    private long[] wholeKeys = new long[firstCapacity];
+    private Object[] keys;
+    //null for a set
+    private InterpreterDataType[] values;
+    private int mask = firstCapacity - 1;
+    private int size;
+
+    HashTable(Interpreter interpreter, boolean hasValues) {
+        this.interpreter = interpreter;
+        if (hasValues) {
+            values = new InterpreterDataType[firstCapacity];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(InterpreterDataType key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return a copy of the value for key, or null if there is none
+     */
+    InterpreterDataType get(InterpreterDataType key) {
+        int slot = find(key);
+        return slot < 0 ? null : Interpreter.snapshot(values[slot]);
+    }
+
+    /**
+     * Add key (with value, for a map), or replace the value of a key that is already there.
+     * @return true if the key is new
+     */
+    boolean put(InterpreterDataType key, InterpreterDataType value) {
+        int slot = find(key);
+        if (slot >= 0) {
+            if (values != null) {
+                values[slot] = Interpreter.snapshot(value);
+            }
+            return false;
+        }
+        if (wholeKeys != null && !(key instanceof NumberIDT n && n.IsWhole)) {
+            boxKeys();
+        }
+        if ((size + 1) * loadDenominator > (mask + 1) * loadNumerator) {
+            resize(2 * (mask + 1));
+        }
+        if (wholeKeys != null) {
+            long whole = ((NumberIDT) key).Whole;
+            insert(hash(Long.hashCode(whole)), whole, null, values == null ? null : Interpreter.snapshot(value));
+        } else {
+            Object k = keyOf(key);
+            insert(hash(k.hashCode()), 0, k, values == null ? null : Interpreter.snapshot(value));
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the key was there
+     */
+    boolean remove(InterpreterDataType key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        //move each following entry that isn't at its home back one
+        int next = (slot + 1) & mask;
+        while (hashes[next] != 0 && distance(next) > 0) {
+            move(next, slot);
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        hashes[slot] = 0;
+        if (keys != null) {
+            keys[slot] = null;
+        }
+        if (values != null) {
+            values[slot] = null;
+        }
+        size--;
+        return true;
+    }
+
+    //the slot holding key, or -1
+    private int find(InterpreterDataType key) {
+        if (wholeKeys != null) {
+            if (!(key instanceof NumberIDT n && n.IsWhole)) {
+                //(but it must still be something that can be a key)
+                keyOf(key);
+                return -1;
+            }
+            long whole = n.Whole;
+            int hash = hash(Long.hashCode(whole));
+            for (int slot = hash & mask, distance = 0; hashes[slot] != 0 && distance(slot) >= distance; slot = (slot + 1) & mask, distance++) {
+                if (hashes[slot] == hash && wholeKeys[slot] == whole) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+        Object k = keyOf(key);
+        int hash = hash(k.hashCode());
+        for (int slot = hash & mask, distance = 0; hashes[slot] != 0 && distance(slot) >= distance; slot = (slot + 1) & mask, distance++) {
+            if (hashes[slot] == hash && keys[slot].equals(k)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    //an entry known not to be in the table, into a table with room for it
+    private void insert(int hash, long whole, Object key, InterpreterDataType value) {
+        int slot = hash & mask;
+        int distance = 0;
+        while (hashes[slot] != 0) {
+            int theirs = distance(slot);
+            if (theirs < distance) {
+                //take their slot, and carry on finding one for them
+                int h = hashes[slot];
+                hashes[slot] = hash;
+                hash = h;
+                if (wholeKeys != null) {
+                    long w = wholeKeys[slot];
+                    wholeKeys[slot] = whole;
+                    whole = w;
+                } else {
+                    Object k = keys[slot];
+                    keys[slot] = key;
+                    key = k;
+                }
+                if (values != null) {
+                    InterpreterDataType v = values[slot];
+                    values[slot] = value;
+                    value = v;
+                }
+                distance = theirs;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        hashes[slot] = hash;
+        if (wholeKeys != null) {
+            wholeKeys[slot] = whole;
+        } else {
+            keys[slot] = key;
+        }
+        if (values != null) {
+            values[slot] = value;
+        }
+    }
+
+    private void move(int from, int to) {
+        hashes[to] = hashes[from];
+        if (wholeKeys != null) {
+            wholeKeys[to] = wholeKeys[from];
+        } else {
+            keys[to] = keys[from];
+        }
+        if (values != null) {
+            values[to] = values[from];
+        }
+    }
+
+    //how far the entry in slot is from its home slot
+    private int distance(int slot) {
+        return (slot - hashes[slot]) & mask;
+    }
+
+    private void resize(int capacity) {
+        int[] oldHashes = hashes;
+        long[] oldWholeKeys = wholeKeys;
+        Object[] oldKeys = keys;
+        InterpreterDataType[] oldValues = values;
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        if (oldWholeKeys != null) {
+            wholeKeys = new long[capacity];
+        } else {
+            keys = new Object[capacity];
+        }
+        if (oldValues != null) {
+            values = new InterpreterDataType[capacity];
+        }
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                insert(oldHashes[i], oldWholeKeys == null ? 0 : oldWholeKeys[i], oldKeys == null ? null : oldKeys[i],
+                        oldValues == null ? null : oldValues[i]);
+            }
+        }
+    }
+
+    //the first key that isn't a whole number: keep them all as Objects from now on (a Long hashes like its long)
+    private void boxKeys() {
+        keys = new Object[wholeKeys.length];
+        for (int i = 0; i < wholeKeys.length; i++) {
+            if (hashes[i] != 0) {
+                keys[i] = wholeKeys[i];
+            }
+        }
+        wholeKeys = null;
+    }
+
+    private Object keyOf(InterpreterDataType value) {
+        if (value instanceof ReferenceIDT reference && reference.refersTo.isEmpty()) {
+            throw new RuntimeException("A key can't be null (no object has been assigned to it)");
+        }
+        Optional<ObjectIDT> object = ObjectIDT.of(value);
+        if (object.isPresent()) {
+            return interpreter.isHashable(object.get()) ? new HashableKey(interpreter, object.get(), interpreter.hashOf(object.get())) : object.get();
+        }
+        return SharedMap.key(value);
+    }
+
+    //an object key whose class implements hashable, with the hash() it gave
+    private record HashableKey(Interpreter interpreter, ObjectIDT object, int hash) {
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof HashableKey key && key.object.astNode == object.astNode
+                    && (key.object == object || interpreter.keysEqual(object, key.object));
+        }
+    }
+
+    //spread the bits (so keys that differ only in their high bits don't all share a home), never 0
+    private static int hash(int h) {
+        h *= 0x9E3779B9;
+        h ^= h >>> 16;
+        return h == 0 ? 1 : h;
+    }
+
+    private static InterpreterDataType keyValue(Object key) {
+        return switch (key) {
+            case ObjectIDT object -> object;
+            case HashableKey hashable -> hashable.object();
+            default -> SharedMap.value(key);
+        };
+    }
+
+    /**
+     * Each key, in no particular order. The keys are copied first, so the loop body may add and remove.
+     */
+    @Override
+    public Iterator<InterpreterDataType> iterator() {
+        InterpreterDataType[] all = new InterpreterDataType[size];
+        int count = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != 0) {
+                all[count++] = wholeKeys != null ? NumberIDT.of(wholeKeys[i]) : keyValue(keys[i]);
+            }
+        }
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < all.length;
+            }
+
+            @Override
+            public InterpreterDataType next() {
+                if (index >= all.length) {
+                    throw new NoSuchElementException();
+                }
+                return all[index++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != 0) {
+                out.append(out.length() == 1 ? "" : ", ").append(wholeKeys != null ? NumberIDT.of(wholeKeys[i]) : keyValue(keys[i]));
+                if (values != null) {
+                    out.append(" : ").append(values[i]);
+                }
+            }
+        }
+        return out.append("}").toString();
+    }
+}
@@ -3,14 +3,41 @@ package Interpreter;
 import AST.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class Interpreter {
+    //a parallel loop is split into about this many chunks (never smaller than minimumChunk iterations), however many cores there are
+    private static final long parallelChunks = 256;
+    private static final long minimumChunk = 16;
 
-public class Interpreter {
     private TranNode top;
+    private final ConsoleWrite consoleWrite;
+    //the "iterator" interface's index in every class's itables, and getNext's slot in it (see Linker)
+    private final int iteratorInterface;
+    private final int getNextSlot;
+    //the same for "hashable", and its hash() and equals(other)
+    private final int hashableInterface;
+    private final int hashSlot;
+    private final int equalsSlot;
+    //how a division of decimals rounds; decimals.divideWith() changes it for the rest of the run (each start() begins
+    //with the default again, since the server runs one interpreter many times)
+    volatile DecimalIDT.Division decimalDivision = DecimalIDT.Division.standard;
+    //one entry per method call running on this thread; null until that method starts an async call
+    private final ThreadLocal<ArrayList<TaskScope>> taskScopes = ThreadLocal.withInitial(ArrayList::new);
+
+    //the object (if any) and the method that a method call resolved to
+    private record MethodTarget(Optional<ObjectIDT> object, MethodDeclarationNode method) {}
+
+    //how a statement block ended: it ran to the end, or a break or return is on its way to the loop or method it leaves.
+    //Passed back up as a value rather than thrown, so leaving early costs no more than finishing.
+    private enum Completion { normal, breakLoop, returnFromMethod }
 
     /** Constructor - get the interpreter ready to run. Set members from parameters and "prepare" the class.
      *
      * Store the tran node.
-     * Add any built-in methods to the AST
+     * Add any built-in methods to the AST, and the built-in classes (see BuiltInClasses)
+     * Link the program (see Linker), so that problems we can find without running show up now
      * @param top - the head of the AST
      */
     public Interpreter(TranNode top) {
@@ -19,13 +46,34 @@ public class Interpreter {
         ClassNode consoleClass = new ClassNode();
         consoleClass.name = "console";
 
-        ConsoleWrite consoleWrite = new ConsoleWrite();
+        consoleWrite = new ConsoleWrite();
         consoleWrite.name = "write";
         consoleWrite.isShared = true;
         consoleWrite.isVariadic = true;
 
         consoleClass.methods.add(consoleWrite);
         top.Classes.add(consoleClass);
+        top.Classes.add(BuiltInClasses.channel());
+        top.Classes.add(BuiltInClasses.actor(this));
+        top.Classes.add(BuiltInClasses.atomicNumber());
+        top.Classes.add(BuiltInClasses.atomicReference());
+        top.Classes.add(BuiltInClasses.counter());
+        top.Classes.add(BuiltInClasses.concurrentMap());
+        top.Classes.add(BuiltInClasses.list());
+        top.Classes.add(BuiltInClasses.map(this));
+        top.Classes.add(BuiltInClasses.set(this));
+        top.Classes.add(BuiltInClasses.numberArray());
+        top.Classes.add(BuiltInClasses.objectArena(top));
+        top.Classes.add(BuiltInClasses.range());
+        top.Classes.add(BuiltInClasses.decimals(this));
+
+        Linker linker = new Linker(top);
+        linker.link();
+        iteratorInterface = linker.interfaceNumber("iterator");
+        getNextSlot = linker.getNextSlot();
+        hashableInterface = linker.interfaceNumber("hashable");
+        hashSlot = linker.hashSlot();
+        equalsSlot = linker.equalsSlot();
     }
 
     /**
@@ -37,10 +85,21 @@ public class Interpreter {
      * Throw an exception if no such method exists.
      */
     public void start() {
+        start(List.of());
+    }
+
+    /**
+     * Same as start(), but passes values to a start method that takes parameters (used by the server to hand a run its
+     * arguments). The start method must be shared, not private, and take exactly as many parameters as we were given.
+     * Settings from an earlier run (decimals.divideWith) are put back to their defaults first.
+     * @param args - the values for start's parameters
+     */
+    public void start(List<InterpreterDataType> args) {
+        decimalDivision = DecimalIDT.Division.standard;
         for (ClassNode classNode : top.Classes) {
             for (MethodDeclarationNode methodNode : classNode.methods) {
-                if (methodNode.isShared && !methodNode.isPrivate && methodNode.name.equals("start") && methodNode.parameters.isEmpty()) {
-                    interpretMethodCall(Optional.empty(), methodNode, List.of());
+                if (methodNode.isShared && !methodNode.isPrivate && methodNode.name.equals("start") && methodNode.parameters.size() == args.size()) {
+                    interpretMethodCall(Optional.empty(), methodNode, args);
                     return;
                 }
             }
@@ -48,6 +107,64 @@ public class Interpreter {
         throw new RuntimeException("Start method not found");
     }
 
+    /**
+     * The lines written by console.write() since this interpreter was created (or last cleared).
+     * @return the console output, one entry per write() call
+     */
+    public List<String> getConsole() {
+        return consoleWrite.console;
+    }
+
+    /**
+     * Should console.write() also print to System.out? (It does unless this is turned off; the lines are always kept
+     * for getConsole().)
+     */
+    public void setConsoleEcho(boolean echo) {
+        consoleWrite.echo = echo;
+    }
+
+    /**
+     * Call a method of an object by name, with values that are already evaluated. Used by built-in classes that call
+     * back into Tran code (an actor running a message).
+     * @param object - the object to call the method on
+     * @param name - the method name
+     * @param values - the parameter values
+     * @return the returned values from the method
+     */
+    List<InterpreterDataType> callMethod(ObjectIDT object, String name, List<InterpreterDataType> values) {
+        for (MethodDeclarationNode method : object.astNode.methods) {
+            if (method.name.equals(name) && !method.isPrivate && parametersMatch(method.parameters, values)) {
+                return interpretMethodCall(Optional.of(object), method, values);
+            }
+        }
+        throw new RuntimeException("No method " + name + " taking " + values.size() + " parameters in class " + object.astNode.name);
+    }
+
+    /**
+     * @return true if the object's class implements "hashable", so a map or set compares it as a key by its hash() and
+     * equals(other) (see HashTable) rather than by identity
+     */
+    boolean isHashable(ObjectIDT object) {
+        return object.astNode.itables != null && object.astNode.itables[hashableInterface] != null;
+    }
+
+    /**
+     * Run a hashable object's hash(). Equal keys must give the same number.
+     */
+    int hashOf(ObjectIDT object) {
+        InterpreterDataType hash = interpretMethodCall(Optional.of(object), object.astNode.itables[hashableInterface][hashSlot], List.of()).getFirst();
+        //(hashed like the number itself as a key)
+        return SharedMap.key(hash).hashCode();
+    }
+
+    /**
+     * Run a hashable object's equals(other).
+     */
+    boolean keysEqual(ObjectIDT object, ObjectIDT other) {
+        return interpretMethodCall(Optional.of(object), object.astNode.itables[hashableInterface][equalsSlot], List.of(other)).getFirst() instanceof BooleanIDT equal
+                && equal.Value;
+    }
+
     //              Running Methods
 
     /**
@@ -71,33 +188,60 @@ public class Interpreter {
     private List<InterpreterDataType> findMethodForMethodCallAndRunIt(Optional<ObjectIDT> object, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc) {
         //eval param's
         List<InterpreterDataType> parameters = getParameters(object, locals, mc);
+        MethodTarget target = findMethodForMethodCall(object, locals, mc, parameters);
+        return interpretMethodCall(target.object(), target.method(), parameters);
+    }
+
+    /**
+     * The "finding" half of findMethodForMethodCallAndRunIt(), for callers that run the method somewhere else (async calls).
+     * @param object - the object we are inside right now (might be empty)
+     * @param locals - the current local variables
+     * @param mc - the method call
+     * @param parameters - the already evaluated parameter values
+     * @return the method to call and the object to call it on
+     */
+    private MethodTarget findMethodForMethodCall(Optional<ObjectIDT> object, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
         //case 1: no object name
         if (mc.objectName.isEmpty()) {
             if (object.isEmpty()) {
                 throw new RuntimeException("Cannot call method with no object");
             }
             MethodDeclarationNode methodNode = getMethodFromObject(object.get(), mc ,parameters);
-            return interpretMethodCall(object, methodNode, parameters);
+            return new MethodTarget(object, methodNode);
+        }
+        //a call on an interface-typed variable (see Linker) finds the method in the object's itable
+        if (mc.itableSlot >= 0) {
+            InterpreterDataType objectVariable = findVariable(mc.objectName.get(), locals, object);
+            if (ObjectIDT.of(objectVariable).orElse(null) instanceof ObjectIDT obj && obj.astNode.itables != null
+                    && obj.astNode.itables[mc.interfaceNumber] != null) {
+                MethodDeclarationNode methodNode = obj.astNode.itables[mc.interfaceNumber][mc.itableSlot];
+                if (parametersMatch(methodNode.parameters, parameters)) {
+                    return new MethodTarget(Optional.of(obj), methodNode);
+                }
+            }
         }
         //case 2: object name refers to class
         Optional<ClassNode> classNode = getClassByName(mc.objectName.get());
         if (classNode.isPresent()) {
             for (MethodDeclarationNode methodNode : classNode.get().methods) {
                 if (doesMatch(methodNode,mc,parameters)) {
-                    return interpretMethodCall(Optional.empty(), methodNode, parameters);
+                    return new MethodTarget(Optional.empty(), methodNode);
                 }
             }
         }
         //case 3: object name refers to var
         if (mc.objectName.isPresent()) {
             InterpreterDataType objectVariable = findVariable(mc.objectName.get(), locals, object);
-            if (objectVariable instanceof ObjectIDT obj) {
+            if (objectVariable instanceof ReferenceIDT reference && reference.refersTo.isEmpty()) {
+                throw new RuntimeException("Cannot call " + mc.methodName + "() on " + mc.objectName.get() + ", it is null (no object has been assigned to it)");
+            }
+            if (ObjectIDT.of(objectVariable).orElse(null) instanceof ObjectIDT obj) {
                 MethodDeclarationNode methodNode = getMethodFromObject(obj, mc, parameters);
-                return interpretMethodCall(Optional.of(obj), methodNode, parameters);
+                return new MethodTarget(Optional.of(obj), methodNode);
             }
         }else if (object.isPresent()) {
             MethodDeclarationNode methodNode = getMethodFromObject(object.get(), mc, parameters);
-            return interpretMethodCall(object, methodNode, parameters);
+            return new MethodTarget(object, methodNode);
         }
         throw new RuntimeException("No matching method found for" + mc.objectName.get());
     }
@@ -107,7 +251,7 @@ public class Interpreter {
      * This is split from findMethodForMethodCallAndRunIt() because there are a few cases where we don't need to do the finding:
      * in start() and dealing with loops with iterator objects, for example.
      *
-     * Check to see if "m" is a built-in. If so, call Execute() on it and return
+     * Check to see if "m" is a built-in. If so, call Execute() on it (with the object, if there is one) and return
      * Make local variables, per "m"
      * If the number of passed in values doesn't match m's "expectations", throw
      * Add the parameters by name to locals.
@@ -121,8 +265,30 @@ public class Interpreter {
     private List<InterpreterDataType> interpretMethodCall(Optional<ObjectIDT> object, MethodDeclarationNode m, List<InterpreterDataType> values) {
         //checks if 'm' is a build-in, calls execute if is
         if (m instanceof BuiltInMethodDeclarationNode builtIn) {
-            return builtIn.Execute(values);
+            return object.isPresent() ? builtIn.Execute(object.get(), values) : builtIn.Execute(values);
+        }
+        //an accessor or mutator that just reads or stores its member (see Linker) is only the slot
+        if (m.accessorSlot >= 0 && object.isPresent()) {
+            return List.of(snapshot(object.get().fields[m.accessorSlot]));
+        }
+        if (m.mutatorSlot >= 0 && object.isPresent() && values.size() == 1) {
+            object.get().fields[m.mutatorSlot].Assign(values.getFirst());
+            return List.of();
+        }
+        HashMap<String, InterpreterDataType> locals = methodLocals(m, values);
+        runMethodBody(object, m, locals);
+
+        List<InterpreterDataType> returnValues = new LinkedList<>();
+        for (VariableDeclarationNode returnVar : m.returns) {
+            returnValues.add(findVariable(returnVar.name,locals,object));
         }
+        return returnValues;
+    }
+
+    /**
+     * Make the local variables for a call of m: the parameters (by name), then its locals and return values.
+     */
+    private HashMap<String, InterpreterDataType> methodLocals(MethodDeclarationNode m, List<InterpreterDataType> values) {
         HashMap<String, InterpreterDataType> locals = new HashMap<>();
         //throws error if number of parameters does not match value expectations
         if (m.parameters.size() != values.size()) {
@@ -130,7 +296,7 @@ public class Interpreter {
         }
         //adds all parameters by name to locals
         for (int i = 0; i < m.parameters.size(); i++) {
-            locals.put(m.parameters.get(i).name, values.get(i));
+            locals.put(m.parameters.get(i).name, bindParameter(m.parameters.get(i), values.get(i)));
         }
         for (VariableDeclarationNode localVar : m.locals) {
             if (!locals.containsKey(localVar.name)) {
@@ -142,63 +308,50 @@ public class Interpreter {
                 locals.put(returnVar.name, instantiate(returnVar.type));
             }
         }
-        //calls interpret statement block on locals
-        interpretStatementBlock(object, m.statements, locals);
+        return locals;
+    }
 
-        List<InterpreterDataType> returnValues = new LinkedList<>();
-        for (VariableDeclarationNode returnVar : m.returns) {
-            returnValues.add(findVariable(returnVar.name,locals,object));
+    //calls interpret statement block on locals; async calls made by this method can't outlive it
+    private void runMethodBody(Optional<ObjectIDT> object, MethodDeclarationNode m, HashMap<String, InterpreterDataType> locals) {
+        boolean finished = false;
+        taskScopes.get().add(null);
+        try {
+            interpretStatementBlock(object, m.statements, locals);
+            finished = true;
+        } finally {
+            closeTaskScope(finished);
         }
-        return returnValues;
     }
 
     //              Running Constructors
 
     /**
-     * This is a special case of the code for methods. Just different enough to make it worthwhile to split it out.
-     *
-     * Call GetParameters() to populate a list of IDT's
-     * Call GetClassByName() to find the class for the constructor
-     * If we didn't find the class, throw an exception
-     * Find a constructor that is a good match - use DoesConstructorMatch()
-     * Call InterpretConstructorCall() on the good match
-     * @param callerObj - the object that we are inside when we called the constructor
-     * @param locals - the current local variables (used to fill parameters)
-     * @param mc  - the method call for this construction
-     * @param newOne - the object that we just created that we are calling the constructor for
-     */
-    private void findConstructorAndRunIt(Optional<ObjectIDT> callerObj, HashMap<String, InterpreterDataType> locals, MethodCallStatementNode mc, ObjectIDT newOne) {
-        System.out.println("Constructor Call -> obj name:" + mc.objectName.orElse(null));
-        //populates a list of IDTs
-        List<InterpreterDataType> parameters = getParameters(callerObj, locals, mc);
-        String className = mc.objectName.orElseThrow(() -> new RuntimeException("Constructor must have class name"));
-        System.out.println("Looking for class: " + className);
-        //find class for the constructor, throws error if not found
-        Optional<ClassNode> classNode = getClassByName(className);
-        if (classNode.isEmpty()) {
-            throw new RuntimeException("Class not found" + mc.objectName.get());
-        }
-        ClassNode classNode1 = classNode.get();
-
-        ConstructorNode constructor = null;
-        //finds a constructor that is a good match
-        for (ConstructorNode constructorNode : classNode1.constructors) {
-            if (doesConstructorMatch(constructorNode,mc,parameters)) {
-                constructor = constructorNode;
-                break;
-            }
-        }
-        //throws error if doesConstructorMatch didn't find a constructor
-        if (constructor == null) {
-            throw new RuntimeException("No constructor found for " + mc.objectName.get());
-        }
-        //interprets match
-        interpretConstructorCall(newOne, constructor, parameters);
+     * Find the constructor to run for a "new": the one the Linker picked for this site, if the values still fit it,
+     * otherwise the first constructor of the class that matches - use DoesConstructorMatch()
+     * If no constructor matches, throw
+     * @param newNode - the "new" expression
+     * @param classNode - the class being constructed
+     * @param parameters - the parameter values
+     * @return the constructor to call
+     */
+    private ConstructorNode findConstructor(NewNode newNode, ClassNode classNode, List<InterpreterDataType> parameters) {
+        ConstructorNode linked = newNode.constructor;
+        if (linked != null && doesConstructorMatch(linked, parameters)) {
+            return linked;
+        }
+        for (ConstructorNode constructorNode : classNode.constructors) {
+            if (doesConstructorMatch(constructorNode, parameters)) {
+                return constructorNode;
+            }
+        }
+        throw new RuntimeException("No constructor found for " + classNode.name);
     }
 
     /**
      * Similar to interpretMethodCall, but "just different enough" - for example, constructors don't return anything.
      *
+     * Built-in constructors just Execute().
+     * Gives every member its default value (copied from the class's Shape)
      * Creates local variables (as defined by the ConstructorNode), calls Instantiate() to do the creation
      * Checks to ensure that the right number of parameters were passed in, if not throw.
      * Adds the parameters (with the names from the ConstructorNode) to the locals.
@@ -208,7 +361,10 @@ public class Interpreter {
      * @param values - the parameter values being passed to the constructor
      */
     private void interpretConstructorCall(ObjectIDT object, ConstructorNode c, List<InterpreterDataType> values) {
-        System.out.println("Constructor Parameters -> Expected: " + c.parameters.size() + "Provided: " + values.size());
+        if (c instanceof BuiltInConstructorNode builtIn) {
+            builtIn.Execute(object, values);
+            return;
+        }
         //checks passed params & validates count
         if (c.parameters.size() != values.size()) {
             throw new RuntimeException("Number of parameters does not match. Expected: " + c.parameters.size() + ", Actual: " + values.size());
@@ -216,22 +372,20 @@ public class Interpreter {
         HashMap<String, InterpreterDataType> locals = new HashMap<>();
         //loops through params & adds them with assigned names to locals
         for (int i = 0; i < c.parameters.size(); i++) {
-            locals.put(c.parameters.get(i).name, values.get(i));
-            System.out.println("Added to locals: " + c.parameters.get(i).name + " = " + values.get(i));
+            locals.put(c.parameters.get(i).name, bindParameter(c.parameters.get(i), values.get(i)));
         }
 
-        System.out.println("Initializing class members...");
-        for (MemberNode var : object.astNode.members) {
-            InterpreterDataType defaultValue = instantiate(var.declaration.type);
-            object.members.put(var.declaration.name, defaultValue);
-            System.out.println("Initialized Variables: " + var.declaration.name + " with a value of: " + defaultValue);
-        }
+        object.shape.fillDefaults(object.fields);
 
-        System.out.println("Constructor Statements: " + c.statements);
-
-        interpretStatementBlock(Optional.of(object), c.statements, locals);
+        boolean finished = false;
+        taskScopes.get().add(null);
+        try {
+            interpretStatementBlock(Optional.of(object), c.statements, locals);
+            finished = true;
+        } finally {
+            closeTaskScope(finished);
+        }
 
-        System.out.println("Constructor complete -> Members: " + object.members );
     }
 
     //              Running Instructions
@@ -244,112 +398,467 @@ public class Interpreter {
      * check the type:
      *      For AssignmentNode, FindVariable() to get the target. Evaluate() the expression. Call Assign() on the target with the result of Evaluate()
      *      For MethodCallStatementNode, call doMethodCall(). Loop over the returned values and copy the into our local variables
-     *      For LoopNode - there are 2 kinds.
-     *          Setup:
-     *          If this is a Loop over an iterator (an Object node whose class has "iterator" as an interface)
-     *              Find the "getNext()" method; throw an exception if there isn't one
-     *          Loop:
-     *          While we are not done:
-     *              if this is a boolean loop, Evaluate() to get true or false.
-     *              if this is an iterator, call "getNext()" - it has 2 return values. The first is a boolean (was there another?), the second is a value
-     *              If the loop has an assignment variable, populate it: for boolean loops, the true/false. For iterators, the "second value"
-     *              If our answer from above is "true", InterpretStatementBlock() on the body of the loop.
+     *      For LoopNode - InterpretLoop()
+     *      For CountedLoopNode - InterpretCountedLoop()
      *       For If - Evaluate() the condition. If true, InterpretStatementBlock() on the if's statements. If not AND there is an else, InterpretStatementBlock on the else body.
+     *       For JoinNode - wait for the task, then copy its return values into the variables, like a method call.
+     *       For ParallelLoopNode - InterpretParallelLoop()
+     *       For BreakNode and ReturnNode - stop, and tell the caller (see Completion). A loop or if that ends with
+     *           anything but normal stops the block too.
      * @param object - the object that this statement block belongs to (used to get member variables and any members without an object)
      * @param statements - the statements to run
      * @param locals - the local variables
+     * @return how the block ended
      */
-    private void interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, HashMap<String, InterpreterDataType> locals) {
+    private Completion interpretStatementBlock(Optional<ObjectIDT> object, List<StatementNode> statements, HashMap<String, InterpreterDataType> locals) {
         //For each statement in statements
         for (StatementNode statement : statements) {
             //Handles assignments
             if (statement instanceof AssignmentNode assignment) {
-                System.out.println("Processing Assignment: " + assignment.target.name + " = " + assignment.expression);
                 //find the target using findVariable
-                InterpreterDataType target = findVariable(assignment.target.name, locals, object);
-                System.out.println("Found target: " + assignment.target.name + " -> " + target);
+                InterpreterDataType target = findVariable(assignment.target, locals, object);
                 //evaluates the expression
                 InterpreterDataType value = evaluate(locals, object, assignment.expression);
-                System.out.println("Evaluated value: " + assignment.expression + " -> " + value);
                 //assigns target to the result (found var) to value (evaluated)
                 target.Assign(value);
-                System.out.println("Assigned value: " + value + " to variable " + assignment.target.name);
             }
             //Handles method calls
             else if (statement instanceof MethodCallStatementNode call) {
                 //'doMethodCall' calls findMethodForMethodCall&RunIt
                 List<InterpreterDataType> returnValues = findMethodForMethodCallAndRunIt(object, locals, call);
-                //loops over returned values and copies into locals
-                for (int i = 0; i < returnValues.size(); i++) {
-                    if (i < call.returnValues.size()) {
-                        String returnName = call.returnValues.get(i).name;
-                        InterpreterDataType target = findVariable(returnName, locals, object);
-                        target.Assign(returnValues.get(i));
-                    }
+                assignReturnValues(call.returnValues, returnValues, locals, object);
+            }
+            //Handles joining async calls
+            else if (statement instanceof JoinNode join) {
+                InterpreterDataType task = findVariable(join.task, locals, object);
+                if (!(task instanceof TaskIDT taskIDT)) {
+                    throw new RuntimeException("Can only join a task, " + join.task.name + " is a " + task.getClass().getSimpleName());
                 }
+                //waits for the call, then copies its return values just like a method call
+                assignReturnValues(join.returnValues, taskIDT.join(), locals, object);
             }
             //Handles loops
             else if (statement instanceof LoopNode loopNode) {
-                boolean isIteratorLoop = loopNode.assignment.isPresent();
-                if (isIteratorLoop) {
-                    VariableReferenceNode iteratorVar = loopNode.assignment.get();
-                    InterpreterDataType iterator = findVariable(iteratorVar.name, locals, object);
-
-                    if (!(iterator instanceof ObjectIDT obj) || !obj.astNode.interfaces.contains(iterator)) {
-                        throw new RuntimeException("Loop assignment must be an object implementing 'iterator'");
-                    }
-                    MethodDeclarationNode getNextMethod = obj.astNode.methods.stream()
-                            .filter(method -> method.name.equals("getNext"))
-                            .findFirst()
-                            .orElseThrow(() -> new RuntimeException("Iterator object must have a 'getNext()' method"));
-
-                    boolean hasNext = true;
-                    while (hasNext) {
-                        List<InterpreterDataType> results = interpretMethodCall(Optional.of(obj), getNextMethod, List.of());
-
-                        if (results.size() != 2 || !(results.get(0) instanceof BooleanIDT)) {
-                            throw new RuntimeException("Iterator 'getNext()' method must return a boolean and a value");
-                        }
-
-                        hasNext = ((BooleanIDT) results.get(0)).Value;
-                        InterpreterDataType next = (InterpreterDataType) results.get(1);
-
-                        if (hasNext ) {
-                            InterpreterDataType loop = findVariable(iteratorVar.name, locals, object);
-                            loop.Assign(next);
-                            interpretStatementBlock(object, loopNode.statements, locals);
-                        }
-                    }
+                Completion done = interpretLoop(object, loopNode, locals);
+                if (done != Completion.normal) {
+                    return done;
+                }
+            }
+            //Handles counted loops
+            else if (statement instanceof CountedLoopNode countedLoop) {
+                Completion done = interpretCountedLoop(object, countedLoop, locals);
+                if (done != Completion.normal) {
+                    return done;
+                }
+            }
+            //Handles parallel loops
+            else if (statement instanceof ParallelLoopNode parallelLoop) {
+                interpretParallelLoop(object, parallelLoop, locals);
+            }
+            //Handles if-else
+            else if (statement instanceof IfNode ifNode) {
+                //if the condition is true interpret statement block, if not & there's an else, interpret statement block on else block
+                Completion done = Completion.normal;
+                if (test(locals, object, ifNode.condition, "If condition")) {
+                    done = interpretStatementBlock(object, ifNode.statements, locals);
+                } else if (ifNode.elseStatement.isPresent()) {
+                    done = interpretStatementBlock(object, ifNode.elseStatement.get().statements, locals);
+                }
+                if (done != Completion.normal) {
+                    return done;
+                }
+            }
+            //Handles match
+            else if (statement instanceof MatchNode match) {
+                Completion done = interpretMatch(object, match, locals);
+                if (done != Completion.normal) {
+                    return done;
+                }
+            }
+            //Handles break and return - the loop or method we are in finishes the job
+            else if (statement instanceof BreakNode) {
+                return Completion.breakLoop;
+            }
+            else if (statement instanceof ReturnNode) {
+                return Completion.returnFromMethod;
+            }
+        }
+        return Completion.normal;
+    }
+
+    /**
+     * Run a loop. There are 2 kinds:
+     *      boolean loops - while the expression is true (populating the assignment variable, if any, with true/false),
+     *          InterpretStatementBlock() on the body of the loop.
+     *      loops over an iterable ("loop x = thing"). The expression is evaluated once, and x gets each value in turn:
+     *          an object whose class has "iterator" as an interface - call "getNext()" until its first return value
+     *              (was there another?) is false. The second return value is the value. getNext() comes from the
+     *              class's itable and its return values are read straight from its locals.
+     *          a range - counts with a long, and writes each number straight into x
+     *          a numberArray - reads each number from its buffer straight into x
+     *          a string - each character, written straight into x
+     *          a built-in object that can be iterated natively (a channel receives until it is closed and empty)
+     * @param object - the object that this statement block belongs to
+     * @param loopNode - the loop
+     * @param locals - the local variables
+     * @return how the loop ended (normal, or a return from inside it)
+     */
+    private Completion interpretLoop(Optional<ObjectIDT> object, LoopNode loopNode, HashMap<String, InterpreterDataType> locals) {
+        //a comparison or and/or/not can only be a condition, so it never needs to be made into an IDT to find out
+        if (isCondition(loopNode.expression)) {
+            return interpretWhile(object, loopNode, locals, test(locals, object, loopNode.expression, "Loop condition"));
+        }
+        InterpreterDataType value = evaluate(locals, object, loopNode.expression);
+        if (value instanceof BooleanIDT condition) {
+            return interpretWhile(object, loopNode, locals, condition.Value);
+        }
+        if (loopNode.assignment.isEmpty()) {
+            throw new RuntimeException("Loop condition must evaluate to a boolean");
+        }
+        InterpreterDataType loopVariable = findVariable(loopNode.assignment.get(), locals, object);
+        Optional<ObjectIDT> iterated = ObjectIDT.of(value);
+        if (value instanceof ReferenceIDT && iterated.isEmpty()) {
+            throw new RuntimeException("Cannot loop over " + loopNode.expression + ", it is null (no object has been assigned to it)");
+        }
+        if (iterated.isPresent() && iterated.get().nativeState instanceof Range range && loopVariable instanceof NumberIDT number) {
+            for (long i = 0; i < range.count; i++) {
+                range.setNth(number, i);
+                Completion done = runIteration(object, loopNode.statements, locals);
+                if (done != Completion.normal) {
+                    return leaveLoop(done);
+                }
+            }
+            return Completion.normal;
+        }
+        if (iterated.isPresent() && iterated.get().nativeState instanceof NumberArray array && loopVariable instanceof NumberIDT number) {
+            for (long i = 0; i < array.length; i++) {
+                number.set(array.get(i));
+                Completion done = runIteration(object, loopNode.statements, locals);
+                if (done != Completion.normal) {
+                    return leaveLoop(done);
+                }
+            }
+            return Completion.normal;
+        }
+        if (value instanceof StringIDT string) {
+            //the string is read once, so the body may change the variable it came from
+            String characters = string.getValue();
+            for (int i = 0; i < characters.length(); i++) {
+                if (loopVariable instanceof CharIDT character) {
+                    character.Value = characters.charAt(i);
                 } else {
-                    while(true) {
-                        InterpreterDataType conditionResult = evaluate(locals, object, loopNode.expression);
-                        if (!(conditionResult instanceof BooleanIDT)) {
-                            throw new RuntimeException("Loop condition must evaluate to a boolean");
-                        }
-                        boolean keepGoing = ((BooleanIDT) conditionResult).Value;
-                        if (!keepGoing) {
-                            break;
-                        }
-                        interpretStatementBlock(object, loopNode.statements, locals);
-                    }
+                    loopVariable.Assign(new CharIDT(characters.charAt(i)));
+                }
+                Completion done = runIteration(object, loopNode.statements, locals);
+                if (done != Completion.normal) {
+                    return leaveLoop(done);
                 }
+            }
+            return Completion.normal;
+        }
+        if (iterated.isPresent() && iterated.get().nativeState instanceof Iterable<?> iterable) {
+            for (Object next : iterable) {
+                loopVariable.Assign((InterpreterDataType) next);
+                Completion done = runIteration(object, loopNode.statements, locals);
+                if (done != Completion.normal) {
+                    return leaveLoop(done);
+                }
+            }
+            return Completion.normal;
+        }
+        MethodDeclarationNode[] itable = iterated.isEmpty() || iterated.get().astNode.itables == null ? null
+                : iterated.get().astNode.itables[iteratorInterface];
+        if (itable == null) {
+            throw new RuntimeException("Can only loop over a boolean, a string, an object implementing 'iterator' or a built-in collection");
+        }
+        MethodDeclarationNode getNext = itable[getNextSlot];
+        String hasNextName = getNext.returns.get(0).name;
+        String valueName = getNext.returns.get(1).name;
+        while (true) {
+            HashMap<String, InterpreterDataType> getNextLocals = methodLocals(getNext, List.of());
+            runMethodBody(iterated, getNext, getNextLocals);
+            if (!(getNextLocals.get(hasNextName) instanceof BooleanIDT hasNext) || !hasNext.Value) {
+                return Completion.normal;
+            }
+            loopVariable.Assign(getNextLocals.get(valueName));
+            Completion done = runIteration(object, loopNode.statements, locals);
+            if (done != Completion.normal) {
+                return leaveLoop(done);
+            }
+        }
+    }
 
+    /**
+     * Run a boolean loop, whose condition was first evaluated to "condition". The condition is tested as a primitive
+     * boolean each time (see test()) and written straight into the loop's variable, if it has one.
+     */
+    private Completion interpretWhile(Optional<ObjectIDT> object, LoopNode loopNode, HashMap<String, InterpreterDataType> locals, boolean condition) {
+        InterpreterDataType flag = loopNode.assignment.isPresent() ? findVariable(loopNode.assignment.get(), locals, object) : null;
+        while (true) {
+            if (flag instanceof BooleanIDT booleanFlag) {
+                booleanFlag.Value = condition;
+            } else if (flag != null) {
+                flag.Assign(BooleanIDT.of(condition));
+            }
+            if (!condition) {
+                return Completion.normal;
+            }
+            Completion done = runIteration(object, loopNode.statements, locals);
+            if (done != Completion.normal) {
+                return leaveLoop(done);
             }
+            condition = test(locals, object, loopNode.expression, "Loop condition");
+        }
+    }
 
+    /**
+     * Run a match: evaluate the subject once and jump to its case through the table the Linker built (an array lookup
+     * when the constants are close-together whole numbers, otherwise one hash lookup), or to the else if no case has it.
+     * @param object - the object that this statement block belongs to
+     * @param match - the match
+     * @param locals - the local variables
+     * @return how the case's statements ended
+     */
+    private Completion interpretMatch(Optional<ObjectIDT> object, MatchNode match, HashMap<String, InterpreterDataType> locals) {
+        InterpreterDataType subject = evaluate(locals, object, match.subject);
+        int found = -1;
+        if (subject instanceof NumberIDT number && match.denseTable != null) {
+            //the table only has whole numbers
+            long index = number.Whole - match.denseFrom;
+            if (number.IsWhole && index >= 0 && index < match.denseTable.length) {
+                found = match.denseTable[(int) index];
+            }
+        } else if (subject instanceof NumberIDT || subject instanceof StringIDT || subject instanceof CharIDT) {
+            found = match.table.getOrDefault(SharedMap.key(subject), -1);
+        } else {
+            throw new RuntimeException("Can only match a number, character or string, not " + subject);
+        }
+        if (found >= 0) {
+            return interpretStatementBlock(object, match.cases.get(found).statements, locals);
+        }
+        if (match.elseStatement.isPresent()) {
+            return interpretStatementBlock(object, match.elseStatement.get().statements, locals);
+        }
+        return Completion.normal;
+    }
 
-            //Handles if-else
-            else if (statement instanceof IfNode ifNode) {
-                //evaluate condition
-                BooleanIDT condition = (BooleanIDT) evaluate(locals, object, ifNode.condition);
-                //if true interpret statement block
-                if (condition.Value) {
-                    interpretStatementBlock(object, ifNode.statements, locals);
+    /**
+     * Run a counted loop ("loop i = from until to by step"). The range and step are evaluated once. The loop counts
+     * with a long and writes each value straight into i (a number variable), so no IDT is made per iteration. A
+     * negative step counts down. Afterwards i holds the first value that wasn't run (from + count * step), or the value
+     * it had when a break left the loop.
+     * @param object - the object that this statement block belongs to
+     * @param loop - the loop
+     * @param locals - the local variables
+     * @return how the loop ended (normal, or a return from inside it)
+     */
+    private Completion interpretCountedLoop(Optional<ObjectIDT> object, CountedLoopNode loop, HashMap<String, InterpreterDataType> locals) {
+        NumberIDT from = evaluateNumber(locals, object, loop.from, "Loop range");
+        NumberIDT until = evaluateNumber(locals, object, loop.until, "Loop range");
+        NumberIDT step = loop.step.isPresent() ? evaluateNumber(locals, object, loop.step.get(), "Loop step") : new NumberIDT(1);
+        if (step.Value == 0 || Float.isNaN(step.Value)) {
+            throw new RuntimeException("Loop step can't be " + step);
+        }
+        if (!(findVariable(loop.variable, locals, object) instanceof NumberIDT variable)) {
+            throw new RuntimeException("Loop variable " + loop.variable.name + " must be a number");
+        }
+        long count = iterations(from, until, step);
+        long start = loop.kernel == null ? 0 : runKernel(object, loop.kernel, locals, from, step, count);
+        for (long i = start; i < count; i++) {
+            setNth(variable, from, step, i);
+            Completion done = runIteration(object, loop.statements, locals);
+            if (done != Completion.normal) {
+                return leaveLoop(done);
+            }
+        }
+        setNth(variable, from, step, count);
+        return Completion.normal;
+    }
+
+    /**
+     * Run as much of a counted loop as its ArrayKernel can (see ArrayKernel). The kernel's arrays and variables are
+     * found here; it checks the rest.
+     * @return how many iterations were run
+     */
+    private long runKernel(Optional<ObjectIDT> object, ArrayKernel kernel, HashMap<String, InterpreterDataType> locals, NumberIDT from, NumberIDT step, long count) {
+        if (count == 0 || !from.IsWhole || !step.IsWhole || step.Whole != 1) {
+            return 0;
+        }
+        if (!(ObjectIDT.of(findVariable(kernel.target, locals, object)).map(o -> o.nativeState).orElse(null) instanceof NumberArray target)) {
+            return 0;
+        }
+        NumberArray[] sources = new NumberArray[kernel.sources.size()];
+        for (int k = 0; k < sources.length; k++) {
+            if (!(ObjectIDT.of(findVariable(kernel.sources.get(k), locals, object)).map(o -> o.nativeState).orElse(null) instanceof NumberArray source)) {
+                return 0;
+            }
+            sources[k] = source;
+        }
+        NumberIDT[] invariants = new NumberIDT[kernel.invariants.size()];
+        for (int k = 0; k < invariants.length; k++) {
+            if (!(evaluate(locals, object, kernel.invariants.get(k)) instanceof NumberIDT invariant)) {
+                return 0;
+            }
+            invariants[k] = invariant;
+        }
+        return kernel.run(target, sources, invariants, from.Whole, count);
+    }
+
+    //how many of from, from + step, ... come before until - counted exactly when all three are whole
+    private static long iterations(NumberIDT from, NumberIDT until, NumberIDT step) {
+        if (from.IsWhole && until.IsWhole && step.IsWhole) {
+            try {
+                return Math.max(0, Math.ceilDiv(Math.subtractExact(until.Whole, from.Whole), step.Whole));
+            } catch (ArithmeticException tooBig) {
+                //count with floats
+            }
+        }
+        return (long) Math.max(0, Math.ceil((until.Value - from.Value) / step.Value));
+    }
+
+    //variable = from + i * step, exactly when from and step are whole
+    private static void setNth(NumberIDT variable, NumberIDT from, NumberIDT step, long i) {
+        if (from.IsWhole && step.IsWhole) {
+            try {
+                variable.set(Math.addExact(from.Whole, Math.multiplyExact(i, step.Whole)));
+                return;
+            } catch (ArithmeticException tooBig) {
+                //a float, then
+            }
+        }
+        variable.set(from.Value + i * step.Value);
+    }
+
+    //one pass through a loop's body. An async call that was cancelled (its thread is interrupted - see TaskScope.cancel)
+    //stops here
+    private Completion runIteration(Optional<ObjectIDT> object, List<StatementNode> statements, HashMap<String, InterpreterDataType> locals) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Async call cancelled, because the method that started it failed");
+        }
+        return interpretStatementBlock(object, statements, locals);
+    }
+
+    //a break ends only the loop it is in; a return keeps going up to the method
+    private static Completion leaveLoop(Completion done) {
+        return done == Completion.breakLoop ? Completion.normal : done;
+    }
+
+    /**
+     * Run a parallel loop. The range is split in half until the pieces are small enough - many more pieces than cores,
+     * so that a core that finishes early can steal work - and the pieces run on the common fork-join pool. Each piece
+     * gets its own copy of the local variables, with the reduction variables starting at their identity (0 for sum and
+     * count, +/- infinity for min and max). Results are combined pairwise in range order. The split depends only on the
+     * size of the range, not on the number of cores or on timing, so the answer is the same every time.
+     * Finally the combined result is folded into the reduction variables. Other locals are left as they were.
+     *
+     * The Linker has already checked that the body only writes to locals.
+     * @param object - the object that this statement block belongs to
+     * @param loop - the parallel loop
+     * @param locals - the local variables
+     */
+    private void interpretParallelLoop(Optional<ObjectIDT> object, ParallelLoopNode loop, HashMap<String, InterpreterDataType> locals) {
+        NumberIDT from = evaluateNumber(locals, object, loop.from, "Parallel loop range");
+        NumberIDT until = evaluateNumber(locals, object, loop.until, "Parallel loop range");
+        NumberIDT step = loop.step.isPresent() ? evaluateNumber(locals, object, loop.step.get(), "Parallel loop step") : new NumberIDT(1);
+        if (!(step.Value > 0)) {
+            throw new RuntimeException("Parallel loop step must be positive, not " + step);
+        }
+        long iterations = iterations(from, until, step);
+        if (iterations == 0) {
+            return;
+        }
+        long grain = Math.max(minimumChunk, iterations / parallelChunks);
+        NumberIDT[] reduced = ForkJoinPool.commonPool().invoke(new ParallelChunk(object, loop, locals, from, step, 0, iterations, grain));
+        for (int i = 0; i < loop.reductions.size(); i++) {
+            ReductionNode reduction = loop.reductions.get(i);
+            NumberIDT target = (NumberIDT) findVariable(reduction.variable.name, locals, object);
+            target.Assign(combine(reduction.op, target, reduced[i]));
+        }
+    }
+
+    //iterations [low, high) of a parallel loop; returns the chunk's value for each reduction (never serialized)
+    @SuppressWarnings("serial")
+    private class ParallelChunk extends RecursiveTask<NumberIDT[]> {
+        private final Optional<ObjectIDT> object;
+        private final ParallelLoopNode loop;
+        private final HashMap<String, InterpreterDataType> locals;
+        private final NumberIDT from, step;
+        private final long low, high, grain;
+
+        ParallelChunk(Optional<ObjectIDT> object, ParallelLoopNode loop, HashMap<String, InterpreterDataType> locals, NumberIDT from, NumberIDT step, long low, long high, long grain) {
+            this.object = object;
+            this.loop = loop;
+            this.locals = locals;
+            this.from = from;
+            this.step = step;
+            this.low = low;
+            this.high = high;
+            this.grain = grain;
+        }
+
+        @Override
+        protected NumberIDT[] compute() {
+            if (high - low <= grain) {
+                return runChunk();
+            }
+            long middle = low + (high - low) / 2;
+            ParallelChunk left = new ParallelChunk(object, loop, locals, from, step, low, middle, grain);
+            left.fork();
+            NumberIDT[] right = new ParallelChunk(object, loop, locals, from, step, middle, high, grain).compute();
+            NumberIDT[] result = left.join();
+            for (int i = 0; i < result.length; i++) {
+                result[i] = combine(loop.reductions.get(i).op, result[i], right[i]);
+            }
+            return result;
+        }
+
+        private NumberIDT[] runChunk() {
+            HashMap<String, InterpreterDataType> workerLocals = new HashMap<>();
+            for (Map.Entry<String, InterpreterDataType> local : locals.entrySet()) {
+                workerLocals.put(local.getKey(), snapshot(local.getValue()));
+            }
+            NumberIDT[] reductions = new NumberIDT[loop.reductions.size()];
+            for (int i = 0; i < reductions.length; i++) {
+                ReductionNode reduction = loop.reductions.get(i);
+                reductions[i] = (NumberIDT) workerLocals.get(reduction.variable.name);
+                switch (reduction.op) {
+                    case sum, count -> reductions[i].set(0L);
+                    case min -> reductions[i].set(Float.POSITIVE_INFINITY);
+                    case max -> reductions[i].set(Float.NEGATIVE_INFINITY);
+                }
+            }
+            NumberIDT index = (NumberIDT) workerLocals.get(loop.variable.name);
+
+            boolean finished = false;
+            taskScopes.get().add(null);
+            try {
+                for (long i = low; i < high; i++) {
+                    setNth(index, from, step, i);
+                    interpretStatementBlock(object, loop.statements, workerLocals);
                 }
-                //if not & there's an else, interpret statement block on else block
-                else
-                    ifNode.elseStatement.ifPresent(elseNode -> interpretStatementBlock(object, elseNode.statements, locals));
+                finished = true;
+            } finally {
+                closeTaskScope(finished);
             }
+
+            return reductions;
+        }
+    }
+
+    private static NumberIDT combine(ReductionNode.ReductionOperations op, NumberIDT left, NumberIDT right) {
+        return switch (op) {
+            case sum, count -> NumberIDT.math(MathOpNode.MathOperations.add, left, right);
+            case min -> left.IsWhole && right.IsWhole ? (right.Whole < left.Whole ? right : left) : new NumberIDT(Math.min(left.Value, right.Value));
+            case max -> left.IsWhole && right.IsWhole ? (right.Whole > left.Whole ? right : left) : new NumberIDT(Math.max(left.Value, right.Value));
+        };
+    }
+
+    //a copy, so the caller keeps the value even if the variable it came from changes
+    private NumberIDT evaluateNumber(HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object, ExpressionNode expression, String what) {
+        if (evaluate(locals, object, expression) instanceof NumberIDT number) {
+            return number.copy();
         }
+        throw new RuntimeException(what + " must be a number: " + expression);
     }
 
     /**
@@ -358,12 +867,13 @@ public class Interpreter {
      *
      * See the How To Write an Interpreter document for examples
      * For each possible ExpressionNode, do the work to resolve it:
-     * BooleanLiteralNode - create a new BooleanLiteralNode with the same value
-     *      - Same for all of the basic data types
-     * BooleanOpNode - Evaluate() left and right, then perform either and/or on the results.
-     * CompareNode - Evaluate() both sides. Do good comparison for each data type
-     * MathOpNode - Evaluate() both sides. If they are both numbers, do the math using the built-in operators. Also handle String + String as concatenation (like Java)
+     * BooleanLiteralNode - BooleanIDT.TRUE or FALSE
+     *      - the other literals return the value the Linker pooled for them. These are constants: don't change them
+     * BooleanOpNode, NotOpNode and CompareNode - test() them, and return BooleanIDT.TRUE or FALSE
+     * MathOpNode - Evaluate() both sides. If they are both numbers, do the math - as longs if both are whole, floats otherwise.
+     *      If either is a decimal (and the other a decimal or a number), do decimal math. Also handle String + String as concatenation (like Java, but appending in place when it can - see StringIDT)
      * MethodCallExpression - call doMethodCall() and return the first value
+     * AsyncCallNode - evaluate the parameters and find the method here, then run it on a virtual thread and return a TaskIDT
      * VariableReferenceNode - call findVariable()
      * @param locals the local variables
      * @param object - the current object we are running
@@ -374,66 +884,31 @@ public class Interpreter {
         if (expression == null) {
             throw new RuntimeException("Expression must not be null");
         }
-        System.out.println("Evaluating Expression: " + expression.getClass().getSimpleName());
         //Resolves 4 expression nodes (Bool , String , Number , Char)
+        //(the Linker gave each literal its value from the constant pool)
         //BooleanLiteralNode
         if (expression instanceof BooleanLiteralNode) {
-            return new BooleanIDT(((BooleanLiteralNode)expression).value);
+            return BooleanIDT.of(((BooleanLiteralNode)expression).value);
         }
         //StringLiteralNode
-        if (expression instanceof StringLiteralNode) {
-            return new StringIDT(((StringLiteralNode)expression).value);
+        if (expression instanceof StringLiteralNode literal) {
+            return literal.constant != null ? literal.constant : new StringIDT(literal.value);
         }
         //NumericLiteralNode
-        if (expression instanceof NumericLiteralNode) {
-            return new NumberIDT(((NumericLiteralNode)expression).value);
+        if (expression instanceof NumericLiteralNode literal) {
+            if (literal.constant != null) {
+                return literal.constant;
+            }
+            return literal.isWhole ? new NumberIDT(literal.wholeValue) : new NumberIDT(literal.value);
         }
         //CharLiteralNode
-        if (expression instanceof CharLiteralNode) {
-            return new CharIDT(((CharLiteralNode)expression).value);
-        }
-
-        //BooleanOpNode
-        if (expression instanceof BooleanOpNode boolOp) {
-            //eval left & right
-            InterpreterDataType l = evaluate(locals, object, boolOp.left);
-            InterpreterDataType r = evaluate(locals, object, boolOp.right);
-
-            //throws error if left or right aren't Bool IDT's
-            if (!(l instanceof BooleanIDT) || !(r instanceof BooleanIDT)) {
-                throw new RuntimeException("Boolean operations require boolean operators");
-            }
-
-            //assign l & r to bool IDT l & r values
-            boolean lVal = ((BooleanIDT) l).Value;
-            boolean rVal = ((BooleanIDT) r).Value;
-            //preform AND || OR on the results
-            return new BooleanIDT(boolOp.op == BooleanOpNode.BooleanOperations.and
-                    ? lVal && rVal
-                    : lVal || rVal);
-        }
-        //CompareNode
-        if (expression instanceof CompareNode compare) {
-            //evaluate both side
-            InterpreterDataType l = evaluate(locals, object, compare.left);
-            InterpreterDataType r = evaluate(locals, object, compare.right);
-
-            //assign sides to num IDT values
-            if (l instanceof NumberIDT && r instanceof NumberIDT) {
-                double lVal = ((NumberIDT) l).Value;
-                double rVal = ((NumberIDT) r).Value;
-
-                //switch return case for every operator case (== != <  > <= >=)
-                return new BooleanIDT(switch (compare.op) {
-                    case eq -> lVal == rVal;
-                    case ne -> lVal != rVal;
-                    case lt -> lVal < rVal;
-                    case gt -> lVal > rVal;
-                    case le -> lVal <= rVal;
-                    case ge -> lVal >= rVal;
-                });
-            }
-            throw new RuntimeException("Unsupported compare operator between: " + l.getClass().getSimpleName() + " and " + r.getClass().getSimpleName());
+        if (expression instanceof CharLiteralNode literal) {
+            return literal.constant != null ? literal.constant : new CharIDT(literal.value);
+        }
+
+        //BooleanOpNode, NotOpNode, CompareNode
+        if (isCondition(expression)) {
+            return BooleanIDT.of(test(locals, object, expression, "Condition"));
         }
         //MathOpNode
         if (expression instanceof MathOpNode mathNode) {
@@ -441,85 +916,267 @@ public class Interpreter {
             InterpreterDataType l = evaluate(locals, object, mathNode.left);
             InterpreterDataType r = evaluate(locals, object, mathNode.right);
 
-            //assign sides to num IDT values
-            if (l instanceof NumberIDT && r instanceof NumberIDT) {
-                float lVal = ((NumberIDT) l).Value;
-                float rVal = ((NumberIDT) r).Value;
-
-                //switch return case for every operator case (+-*/%)
-                return switch (mathNode.op) {
-                    case add -> new NumberIDT(lVal + rVal);
-                    case subtract -> new NumberIDT(lVal - rVal);
-                    case multiply -> new NumberIDT(lVal * rVal);
-                    case divide -> {
-                        //throws error if dividing by 0
-                        if (rVal == 0) {
-                            throw new RuntimeException("Division by zero");
-                        }
-                        yield new NumberIDT(lVal / rVal);
-                    }
-                    case modulo -> new NumberIDT(lVal % rVal);
-                };
+            //whole numbers stay whole while they can (see NumberIDT.math)
+            if (l instanceof NumberIDT lNumber && r instanceof NumberIDT rNumber) {
+                return NumberIDT.math(mathNode.op, lNumber, rNumber);
+            }
+            //a decimal with a decimal or a number gives a decimal
+            if ((l instanceof DecimalIDT || r instanceof DecimalIDT) && (l instanceof DecimalIDT || l instanceof NumberIDT) && (r instanceof DecimalIDT || r instanceof NumberIDT)) {
+                return DecimalIDT.math(mathNode.op, DecimalIDT.of(l), DecimalIDT.of(r), decimalDivision);
             }
             //handle adding strings
-            if (mathNode.op == MathOpNode.MathOperations.add && l instanceof StringIDT && r instanceof StringIDT) {
-                return new StringIDT(((StringIDT) l).Value + ((StringIDT) r).Value);
+            if (mathNode.op == MathOpNode.MathOperations.add && l instanceof StringIDT lString && r instanceof StringIDT rString) {
+                return lString.concat(rString);
             }
             throw new RuntimeException("Unsupported math operator: " + mathNode.getClass().getSimpleName());
         }
         //MethodCall
         if (expression instanceof MethodCallExpressionNode call) {
-            System.out.println("Eval MethodCallExpression: " + call.methodName);
-            System.out.println("Object: " + call.objectName.orElse("None"));
-            System.out.println("Parameters: " + call.parameters);
-
-            MethodCallStatementNode temp = new MethodCallStatementNode();
-            temp.methodName = call.methodName;
-            temp.objectName = call.objectName;
-            temp.parameters = call.parameters;
-
-            System.out.println("Temporary MethodCallStatementNode created with:");
-            System.out.println("Method Name: " + temp.methodName);
-            System.out.println("Object Name: " + temp.objectName.orElse("None"));
-            System.out.println("Parameters: " + temp.parameters);
+            //(with the Linker's itable slot, if it found one)
+            MethodCallStatementNode temp = new MethodCallStatementNode(call);
 
             //find results by doing method call
             List<InterpreterDataType> results = findMethodForMethodCallAndRunIt(object, locals, temp);
             if (results.isEmpty()) {
                 throw new RuntimeException("Method call returned no results");
             }
-            System.out.println("Returning first result of method call: " + results.getFirst());
             return results.getFirst();
         }
+        //AsyncCallNode
+        if (expression instanceof AsyncCallNode async) {
+            MethodCallStatementNode call = new MethodCallStatementNode(async.call);
+            //parameters are evaluated (and copied) and the method is found now, so the task never touches our locals
+            List<InterpreterDataType> parameters = new LinkedList<>();
+            for (InterpreterDataType parameter : getParameters(object, locals, call)) {
+                parameters.add(snapshot(parameter));
+            }
+            MethodTarget target = findMethodForMethodCall(object, locals, call, parameters);
+            return new TaskIDT(currentTaskScope().fork(() -> interpretMethodCall(target.object(), target.method(), parameters)));
+        }
         //VariableReferenceNode
         if (expression instanceof VariableReferenceNode var) {
             //calls & returns var
-            return findVariable(var.name, locals, object);
+            return findVariable(var, locals, object);
         }
         if (expression instanceof NewNode newNode) {
-            Optional<ClassNode> classNodeOpt = getClassByName(newNode.className);
-            if (classNodeOpt.isEmpty()) {
-                throw new RuntimeException("Class not found: " + newNode.className);
+            //the Linker found the class (and, usually, the constructor) already
+            ClassNode classNode = newNode.classNode;
+            if (classNode == null) {
+                classNode = getClassByName(newNode.className).orElseThrow(() -> new RuntimeException("Class not found: " + newNode.className));
+            }
+            List<InterpreterDataType> parameters = new ArrayList<>(newNode.parameters.size());
+            for (ExpressionNode parameter : newNode.parameters) {
+                parameters.add(evaluate(locals, object, parameter));
             }
-            ClassNode classNode = classNodeOpt.get();
-
             ObjectIDT newObject = new ObjectIDT(classNode);
-
-            MethodCallStatementNode call = new MethodCallStatementNode();
-            call.methodName = "construct";
-            call.objectName = Optional.of(newNode.className);
-            call.parameters = newNode.parameters;
-
-            findConstructorAndRunIt(object, locals, call, newObject);
-
+            interpretConstructorCall(newObject, findConstructor(newNode, classNode, parameters), parameters);
             return newObject;
         }
         //throws error if given expression isnt among these
         throw new RuntimeException("Expression type not handled: " + expression.getClass().getSimpleName());
     }
 
+    //              Conditions
+
+    private static boolean isCondition(ExpressionNode expression) {
+        return expression instanceof BooleanOpNode || expression instanceof NotOpNode || expression instanceof CompareNode;
+    }
+
+    /**
+     * Evaluate a condition to a primitive boolean, without making an IDT for it or for any comparison or and/or/not
+     * inside it. and/or short-circuit: the right side isn't evaluated if the left side already decided the answer.
+     * When the Linker found that both sides of an and/or are free of side effects and can't fail, the side that decides
+     * the answer more often (is false more often, for an and) is moved first, going by what the last 1024 evaluations saw.
+     * @param what - what the condition is, for the error if it isn't a boolean
+     */
+    private boolean test(HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object, ExpressionNode condition, String what) {
+        if (condition instanceof CompareNode compare) {
+            return compare(locals, object, compare);
+        }
+        if (condition instanceof NotOpNode not) {
+            return !test(locals, object, not.left, "Operand of not");
+        }
+        if (condition instanceof BooleanOpNode boolOp) {
+            //the value of a side that settles the answer by itself
+            boolean decides = boolOp.op == BooleanOpNode.BooleanOperations.or;
+            //read once: another thread may reorder the node while we evaluate it
+            boolean rightFirst = boolOp.rightFirst;
+            ExpressionNode first = rightFirst ? boolOp.right : boolOp.left;
+            ExpressionNode second = rightFirst ? boolOp.left : boolOp.right;
+            if (test(locals, object, first, "Operand of " + boolOp.op) == decides) {
+                if (boolOp.reorderable) {
+                    profile(boolOp, rightFirst, true, false);
+                }
+                return decides;
+            }
+            boolean answer = test(locals, object, second, "Operand of " + boolOp.op);
+            if (boolOp.reorderable) {
+                profile(boolOp, rightFirst, false, answer == decides);
+            }
+            return answer;
+        }
+        if (condition instanceof BooleanLiteralNode literal) {
+            return literal.value;
+        }
+        if (evaluate(locals, object, condition) instanceof BooleanIDT value) {
+            return value.Value;
+        }
+        throw new RuntimeException(what + " must evaluate to a boolean: " + condition);
+    }
+
+    /**
+     * Count an evaluation of a reorderable and/or that ran with the given order, and reorder it every 1024 of them.
+     * Threads (parallel loops, server runs) update the counts without locking, so they are only a hint: some are lost,
+     * and a count may be reset by another thread. Each count is read once, and a reorder sets the order opposite to the
+     * one that was measured (instead of flipping whatever it is now). Either order gives the same answer.
+     */
+    private static void profile(BooleanOpNode boolOp, boolean rightFirst, boolean firstDecided, boolean secondDecided) {
+        if (firstDecided) {
+            boolOp.firstDecided++;
+        } else if (secondDecided) {
+            boolOp.secondDecided++;
+        }
+        int evaluations = ++boolOp.evaluations;
+        if (evaluations < 1024) {
+            return;
+        }
+        int first = boolOp.firstDecided;
+        int second = boolOp.secondDecided;
+        boolOp.evaluations = 0;
+        boolOp.firstDecided = 0;
+        boolOp.secondDecided = 0;
+        int secondEvaluations = evaluations - first;
+        //compare the rates: second / secondEvaluations > first / evaluations
+        if (secondEvaluations > 0 && (long) second * evaluations > (long) first * secondEvaluations) {
+            boolOp.rightFirst = !rightFirst;
+        }
+    }
+
+    //compares whole numbers as longs, decimals (with decimals or numbers) exactly and any others as doubles; a number
+    //literal is read straight from the node
+    private boolean compare(HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object, CompareNode compare) {
+        InterpreterDataType l = compare.left instanceof NumericLiteralNode ? null : evaluate(locals, object, compare.left);
+        InterpreterDataType r = compare.right instanceof NumericLiteralNode ? null : evaluate(locals, object, compare.right);
+        if (l instanceof DecimalIDT || r instanceof DecimalIDT) {
+            int order = DecimalIDT.compare(DecimalIDT.of(l != null ? l : evaluate(locals, object, compare.left)),
+                    DecimalIDT.of(r != null ? r : evaluate(locals, object, compare.right)));
+            return switch (compare.op) {
+                case eq -> order == 0;
+                case ne -> order != 0;
+                case lt -> order < 0;
+                case gt -> order > 0;
+                case le -> order <= 0;
+                case ge -> order >= 0;
+            };
+        }
+        if ((l == null || l instanceof NumberIDT) && (r == null || r instanceof NumberIDT)) {
+            NumericLiteralNode lLiteral = l == null ? (NumericLiteralNode) compare.left : null;
+            NumericLiteralNode rLiteral = r == null ? (NumericLiteralNode) compare.right : null;
+            boolean lWhole = l == null ? lLiteral.isWhole : ((NumberIDT) l).IsWhole;
+            boolean rWhole = r == null ? rLiteral.isWhole : ((NumberIDT) r).IsWhole;
+            if (lWhole && rWhole) {
+                long lLong = l == null ? lLiteral.wholeValue : ((NumberIDT) l).Whole;
+                long rLong = r == null ? rLiteral.wholeValue : ((NumberIDT) r).Whole;
+                return switch (compare.op) {
+                    case eq -> lLong == rLong;
+                    case ne -> lLong != rLong;
+                    case lt -> lLong < rLong;
+                    case gt -> lLong > rLong;
+                    case le -> lLong <= rLong;
+                    case ge -> lLong >= rLong;
+                };
+            }
+            double lVal = l == null ? lLiteral.value : ((NumberIDT) l).Value;
+            double rVal = r == null ? rLiteral.value : ((NumberIDT) r).Value;
+            //switch return case for every operator case (== != <  > <= >=)
+            return switch (compare.op) {
+                case eq -> lVal == rVal;
+                case ne -> lVal != rVal;
+                case lt -> lVal < rVal;
+                case gt -> lVal > rVal;
+                case le -> lVal <= rVal;
+                case ge -> lVal >= rVal;
+            };
+        }
+        throw new RuntimeException("Unsupported compare operator between: " + (l == null ? "NumberIDT" : l.getClass().getSimpleName())
+                + " and " + (r == null ? "NumberIDT" : r.getClass().getSimpleName()));
+    }
+
     //              Utility Methods
 
+    /**
+     * Copy the values returned from a method (or a joined task) into the variables on the left of the "=".
+     * Extra return values that have no variable are dropped.
+     * @param targets - the variables to assign to
+     * @param returnValues - the values the method returned
+     * @param locals - the local variables
+     * @param object - the current object (so we can find members)
+     */
+    private void assignReturnValues(List<VariableReferenceNode> targets, List<InterpreterDataType> returnValues, HashMap<String, InterpreterDataType> locals, Optional<ObjectIDT> object) {
+        //loops over returned values and copies into locals
+        for (int i = 0; i < returnValues.size(); i++) {
+            if (i < targets.size()) {
+                InterpreterDataType target = findVariable(targets.get(i), locals, object);
+                target.Assign(returnValues.get(i));
+            }
+        }
+    }
+
+    /**
+     * The task scope of the method call running on this thread. It is created the first time that method makes an async call.
+     */
+    private TaskScope currentTaskScope() {
+        ArrayList<TaskScope> scopes = taskScopes.get();
+        if (scopes.isEmpty()) {
+            throw new RuntimeException("async calls can only be made inside a method");
+        }
+        TaskScope scope = scopes.getLast();
+        if (scope == null) {
+            scope = new TaskScope();
+            scopes.set(scopes.size() - 1, scope);
+        }
+        return scope;
+    }
+
+    /**
+     * Called when a method call is done. Waits for the tasks it started (or cancels them, if the method threw).
+     * @param finished - did the method run to completion?
+     */
+    private void closeTaskScope(boolean finished) {
+        TaskScope scope = taskScopes.get().removeLast();
+        if (scope == null) {
+            return;
+        }
+        if (finished) {
+            scope.close();
+        } else {
+            scope.cancel();
+        }
+    }
+
+    /**
+     * Copy a simple value, so that an async call (or a parallel loop worker, or the receiver of a message) doesn't see
+     * later changes to the caller's variables. Objects are shared (a reference is copied, the object isn't).
+     * @param value - a parameter value
+     * @return a copy of the value (or the same object)
+     */
+    static InterpreterDataType snapshot(InterpreterDataType value) {
+        return switch (value) {
+            case NumberIDT n -> n.copy();
+            case DecimalIDT d -> d.copy();
+            case StringIDT s -> s.copy();
+            case BooleanIDT b -> new BooleanIDT(b.Value);
+            case CharIDT c -> new CharIDT(c.Value);
+            case TaskIDT t -> new TaskIDT(t.future);
+            case ReferenceIDT r -> {
+                ReferenceIDT copy = new ReferenceIDT(r.type);
+                copy.refersTo = r.refersTo;
+                yield copy;
+            }
+            default -> value;
+        };
+    }
+
     /**
      * Used when trying to find a match to a method call. Given a method declaration, does it match this methoc call?
      * We double check with the parameters, too, although in theory JUST checking the declaration to the call should be enough.
@@ -534,8 +1191,6 @@ public class Interpreter {
      * @return does this method match the method call?
      */
     private boolean doesMatch(MethodDeclarationNode m, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
-        //check method name
-        System.out.println("Matched method: " + m.name + " with call: " + mc.methodName);
         //checks for name match, returns false if two names dont match
         if (!m.name.equals(mc.methodName)) {
             return false;
@@ -546,24 +1201,17 @@ public class Interpreter {
         }
         //check for param match, returns false if two parameter counts are not equal
         if (m.parameters.size() != mc.parameters.size()) {
-            System.out.println("Param count mismatch");
             return false;
         }
-        //loops through param's and checks types
-        for (int i = 0; i < m.parameters.size(); i++) {
-            VariableDeclarationNode paramDec = m.parameters.get(i);
-            InterpreterDataType parameter = parameters.get(i);
-            if (!typeMatchToIDT(paramDec.type, parameter)) {
-                System.out.println("Param type mismatch at index: " + i);
-                return false;
-            }
+        //checks param types
+        if (!parametersMatch(m.parameters, parameters)) {
+            return false;
         }
        //check return count, returns true if no return values are needed, returns false if two return counts are not equal
         if (m.returns.size() != mc.returnValues.size()) {
             if (mc.returnValues.isEmpty()) {
                 return true;
             }
-            System.out.println("Return count mismatch");
             return false;
         }
         //return true if all checks pass
@@ -573,27 +1221,34 @@ public class Interpreter {
     /**
      * Very similar to DoesMatch() except simpler - there are no return values, the name will always match.
      * @param c - a particular constructor
-     * @param mc - the method call
      * @param parameters - the parameter values
-     * @return does this constructor match the method call?
+     * @return can this constructor be called with these values?
+     */
+    private boolean doesConstructorMatch(ConstructorNode c, List<InterpreterDataType> parameters) {
+        //built-in constructors check their own parameters
+        if (c instanceof BuiltInConstructorNode) {
+            return true;
+        }
+        //returns false if the count or the types don't match
+        return parametersMatch(c.parameters, parameters);
+    }
+
+    /**
+     * Do the parameter values fit the declared parameters (same count, and each type matches - use TypeMatchToIDT)?
+     * @param declared - the parameters of a method or constructor
+     * @param values - the parameter values
+     * @return do they match?
      */
-    private boolean doesConstructorMatch(ConstructorNode c, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
-        //checks param count, returns false if two counts are not equal
-        if (c.parameters.size() != mc.parameters.size()) {
-            System.out.println("Constructor parameter count mismatch");
+    private boolean parametersMatch(List<VariableDeclarationNode> declared, List<InterpreterDataType> values) {
+        if (declared.size() != values.size()) {
             return false;
         }
-        //loops through parameters, returns false if parameters are not equal
-        for (int i = 0; i < mc.parameters.size(); i++) {
-            VariableDeclarationNode paramDec = c.parameters.get(i);
-            InterpreterDataType parameter = parameters.get(i);
-            if (!typeMatchToIDT(paramDec.type, parameter)) {
-                System.out.println("Constructor parameter type mismatch at index: " + i);
+        //loops through param's and checks types
+        for (int i = 0; i < declared.size(); i++) {
+            if (!typeMatchToIDT(declared.get(i).type, values.get(i))) {
                 return false;
             }
         }
-        System.out.println("Constructor matched");
-        //return true if all constructor checks pass
         return true;
     }
 
@@ -632,6 +1287,14 @@ public class Interpreter {
         if (idt instanceof StringIDT && type.equals("string")) {return true;}
         if (idt instanceof BooleanIDT && type.equals("boolean")) {return true;}
         if (idt instanceof NumberIDT && type.equals("character")) {return true;}
+        if (idt instanceof TaskIDT && type.equals("task")) {return true;}
+        if (idt instanceof DecimalIDT && type.equals("decimal")) {return true;}
+        //objects match their class name or any of their interfaces
+        if (idt instanceof ObjectIDT obj && obj.isA(type)) {return true;}
+        //a reference matches if what it refers to does; a reference to nothing can be passed as any class or interface
+        if (idt instanceof ReferenceIDT ref) {return ref.refersTo.map(obj -> obj.isA(type)).orElseGet(() -> isClassOrInterface(type));}
+        //a known type that this value isn't (so another overload may still match)
+        if (List.of("number", "string", "boolean", "character", "task", "decimal").contains(type) || isClassOrInterface(type)) {return false;}
         throw new RuntimeException("Unable to resolve type " + type);
     }
 
@@ -646,18 +1309,41 @@ public class Interpreter {
      */
     private MethodDeclarationNode getMethodFromObject(ObjectIDT object, MethodCallStatementNode mc, List<InterpreterDataType> parameters) {
         ClassNode classNode = object.astNode;
-        System.out.println("Looking for method: " + mc.methodName);
         //loops over methods in mc, looks for a method that matches
         for (MethodDeclarationNode method : classNode.methods) {
-            System.out.println("Checking method: " + method.name);
             if (doesMatch(method, mc, parameters)) {
-                System.out.println("Method matched: " + method.name);
                 return method;
             }
         }
         throw new RuntimeException("Unable to resolve method call " + mc);
     }
 
+    private boolean isClassOrInterface(String name) {
+        return getClassByName(name).isPresent() || top.Interfaces.stream().anyMatch(i -> i.name.equals(name));
+    }
+
+    /**
+     * A parameter is the caller's variable (so assigning to it assigns to the caller's variable). A value that isn't
+     * in a variable - like "new Point()" - gets a variable of the parameter's type. So does a constant (a literal, true
+     * or false, a small number), which is shared and must not be assigned to.
+     */
+    private static InterpreterDataType bindParameter(VariableDeclarationNode parameter, InterpreterDataType value) {
+        if (value instanceof ObjectIDT object) {
+            return new ReferenceIDT(parameter.type, object);
+        }
+        return isConstant(value) ? snapshot(value) : value;
+    }
+
+    private static boolean isConstant(InterpreterDataType value) {
+        return switch (value) {
+            case NumberIDT n -> n.constant;
+            case BooleanIDT b -> b.constant;
+            case StringIDT s -> s.constant;
+            case CharIDT c -> c.constant;
+            default -> false;
+        };
+    }
+
     /**
      * Find a class, given the name. Just loops over the TranNode's classes member, matching by name.
      *
@@ -678,41 +1364,53 @@ public class Interpreter {
      * @return the IDT that we are looking for or throw an exception
      */
     private InterpreterDataType findVariable(String name, HashMap<String,InterpreterDataType> locals, Optional<ObjectIDT> object) {
-        System.out.println("Looking for variable: " + name);
-        System.out.println("Locals: " + locals);
-        System.out.println("Object: " + (object.isPresent() ? object.get().members : "No object present"));
         //checks local variable names
         if (locals.containsKey(name)) {
-            System.out.println("Variable found: " + name + " in locals: " + locals.get(name));
             return locals.get(name);
         }
         //checks and objects members
-        if (object.isPresent() && object.get().members.containsKey(name)) {
-            System.out.println("Variable found: " + name + " in object's members: " + object.get().members.get(name));
-            return object.get().members.get(name);
+        if (object.isPresent()) {
+            InterpreterDataType member = object.get().getMember(name);
+            if (member != null) {
+                return member;
+            }
         }
         throw new RuntimeException("Unable to find variable: " + name);
     }
 
+    /**
+     * Same as findVariable(name), but a member that the Linker already found a slot for is just an array index.
+     */
+    private InterpreterDataType findVariable(VariableReferenceNode variable, HashMap<String,InterpreterDataType> locals, Optional<ObjectIDT> object) {
+        if (variable.memberSlot >= 0 && object.isPresent()) {
+            InterpreterDataType member = object.get().fields[variable.memberSlot];
+            if (member != null) {
+                return member;
+            }
+        }
+        return findVariable(variable.name, locals, object);
+    }
+
     /**
      * Given a string (the type name), make an IDT for it.
      *
-     * @param type The name of the type (string, number, boolean, character). Defaults to ReferenceIDT if not one of those.
-     * @return an IDT with default values (0 for number, "" for string, false for boolean, ' ' for character)
+     * @param type The name of the type (string, number, boolean, character, task, decimal). Defaults to ReferenceIDT if not one of those.
+     * @return an IDT with default values (0 for number and decimal, "" for string, false for boolean, ' ' for character, a
+     *      reference to nothing for classes and interfaces)
      */
     private InterpreterDataType instantiate(String type) {
-        System.out.println("Instantiating type: " + type);
         //switch case to assign primitive types their IDT's
         switch (type) {
             case "number" -> {return new NumberIDT(0);}
             case "string" -> {return new StringIDT("");}
             case "boolean" -> {return new BooleanIDT(false);}
             case "character" -> {return new CharIDT(' ');}
+            case "task" -> {return new TaskIDT();}
+            case "decimal" -> {return new DecimalIDT(0, 0);}
             default -> {
-                Optional<ClassNode> classNode = getClassByName(type);
-                if (classNode.isPresent()) {
-                    System.out.println("Found class: " + classNode.get().name);
-                    return new ObjectIDT(classNode.get());
+                //objects are made by "new" (or come back from a method); until then the variable refers to nothing
+                if (isClassOrInterface(type)) {
+                    return new ReferenceIDT(type);
                 }
                 throw new RuntimeException("Unknown type: " + type);
             }
@@ -0,0 +1,1052 @@
+package Interpreter;
+
+import AST.*;
+
+import java.util.*;
+
+/**
+ * Work that is done once for a program, before any of it runs.
+ *
+ * Member references: every variable reference that names a member of its class (and isn't hidden by a local) is given
+ * the member's slot in the class's Shape, so that at run time it is an array index instead of a name lookup.
+ *
+ * Accessors and mutators: a member's accessor becomes a method with the member's name that returns "value", and its
+ * mutator a method with the member's name that takes "value" - so obj.x() reads x and obj.x(5) writes it. One that does
+ * nothing but "value = x" (or "x = value") is marked with the member's slot and runs as a plain read (or store).
+ *
+ * Interfaces: every interface gets a number, and every class an itable for each interface it implements - its method
+ * for each of the interface's headers, in order. A class that is missing one (same name, parameter types and return
+ * types) is an error here. A call on a variable whose type is an interface is given the interface's number and the
+ * header's slot, so the Interpreter finds the method by index. "iterator" is always an interface: if the program
+ * doesn't declare it, it is getNext() returning a boolean (is there a next value?) and the value, of any type. So is
+ * "hashable": hash() returning a number and equals(other) returning a boolean - a map or set compares keys whose class
+ * implements it by those, instead of by identity (see HashTable).
+ *
+ * Break and return: a break has to be in a loop, and neither may leave a parallel loop.
+ *
+ * New: every "new" is given its class and, when only one constructor takes that many parameters, the constructor, so
+ * creating an object doesn't search for either. Member types are checked here too, since a Shape assumes them.
+ *
+ * Constants: every number, string and character literal is given its value from the program's constant pool, which
+ * holds one value for each different literal (small whole numbers are NumberIDT's shared ones). So evaluating a literal
+ * makes nothing; the pooled values are constants, never assigned to.
+ *
+ * Array kernels: a counted loop whose body is just "c.set(i, expression)" over numberArrays is given an ArrayKernel,
+ * which runs it a block of numbers at a time.
+ *
+ * Parallel loops: each worker of a parallel loop gets its own copy of the method's local
+ * variables (object locals are references, so a worker's copy refers to the same object but can be pointed elsewhere),
+ * so the body may assign to locals freely. Anything else it writes - members, objects,
+ * the caller's variables through a method's parameters - is shared between the workers, so a loop that could do that
+ * is rejected here, when the Interpreter is created, instead of racing halfway through a run. That includes calling a
+ * built-in method that changes an object that isn't thread-safe (changesObject, like map.put).
+ */
+class Linker {
+    private final TranNode top;
+    //what each method writes outside of its own locals, filled in as we come across calls
+    private final HashMap<MethodDeclarationNode, MethodWrites> methodWrites = new HashMap<>();
+    //interface name -> number, and the headers of each interface by number
+    private final HashMap<String, Integer> interfaceNumbers = new HashMap<>();
+    private final List<List<MethodHeaderNode>> interfaceHeaders = new ArrayList<>();
+    private int getNextSlot;
+    private int hashSlot;
+    private int equalsSlot;
+    //literal (as a SharedMap key) -> its value
+    private final HashMap<Object, InterpreterDataType> constantPool = new HashMap<>();
+
+    //a description of the first shared write a method makes (null if it makes none) and which of its parameters it assigns to
+    private static class MethodWrites {
+        String sharedWrite;
+        final Set<Integer> parameters = new HashSet<>();
+    }
+
+    Linker(TranNode top) {
+        this.top = top;
+    }
+
+    /**
+     * Link every method and constructor of every class. Throws if a parallel loop writes to shared state.
+     */
+    void link() {
+        numberInterfaces();
+        for (ClassNode classNode : top.Classes) {
+            checkMemberTypes(classNode);
+            addAccessors(classNode);
+            buildItables(classNode);
+        }
+        for (ClassNode classNode : top.Classes) {
+            Shape shape = Shape.of(classNode);
+            for (MethodDeclarationNode method : classNode.methods) {
+                HashMap<String, String> locals = variableTypes(method.parameters, method.locals, method.returns);
+                convertIfChains(shape, method.statements, locals);
+                linkMembers(shape, method.statements, locals);
+                checkExits(classNode, method.statements, false, false);
+                findParallelLoops(classNode, method.statements, locals);
+            }
+            for (ConstructorNode constructor : classNode.constructors) {
+                HashMap<String, String> locals = variableTypes(constructor.parameters, constructor.locals, List.of());
+                convertIfChains(shape, constructor.statements, locals);
+                linkMembers(shape, constructor.statements, locals);
+                checkExits(classNode, constructor.statements, false, false);
+                findParallelLoops(classNode, constructor.statements, locals);
+            }
+        }
+    }
+
+    /**
+     * @return the number the Linker gave this interface (its index in every class's itables), or -1 if there is no such interface
+     */
+    int interfaceNumber(String name) {
+        return interfaceNumbers.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the slot of getNext() in the "iterator" interface
+     */
+    int getNextSlot() {
+        return getNextSlot;
+    }
+
+    /**
+     * @return the slot of hash() in the "hashable" interface
+     */
+    int hashSlot() {
+        return hashSlot;
+    }
+
+    /**
+     * @return the slot of equals(other) in the "hashable" interface
+     */
+    int equalsSlot() {
+        return equalsSlot;
+    }
+
+    //              Interfaces
+
+    private void numberInterfaces() {
+        for (InterfaceNode interfaceNode : top.Interfaces) {
+            if (interfaceNumbers.containsKey(interfaceNode.name)) {
+                throw new RuntimeException("Interface " + interfaceNode.name + " is declared more than once");
+            }
+            interfaceNumbers.put(interfaceNode.name, interfaceHeaders.size());
+            interfaceHeaders.add(interfaceNode.methods);
+        }
+        if (!interfaceNumbers.containsKey("iterator")) {
+            //the value's type is left null: any type will do
+            MethodHeaderNode getNext = new MethodHeaderNode();
+            getNext.name = "getNext";
+            getNext.returns.add(new VariableDeclarationNode());
+            getNext.returns.getFirst().type = "boolean";
+            getNext.returns.add(new VariableDeclarationNode());
+            interfaceNumbers.put("iterator", interfaceHeaders.size());
+            interfaceHeaders.add(List.of(getNext));
+        }
+        //loops call getNext() through its slot, so a declared iterator interface must have it
+        List<MethodHeaderNode> iterator = interfaceHeaders.get(interfaceNumbers.get("iterator"));
+        getNextSlot = -1;
+        for (int slot = 0; slot < iterator.size(); slot++) {
+            MethodHeaderNode header = iterator.get(slot);
+            if (header.name.equals("getNext") && header.parameters.isEmpty() && header.returns.size() == 2
+                    && "boolean".equals(header.returns.getFirst().type)) {
+                getNextSlot = slot;
+            }
+        }
+        if (getNextSlot < 0) {
+            throw new RuntimeException("Interface iterator must have getNext() : boolean, and a value");
+        }
+        if (!interfaceNumbers.containsKey("hashable")) {
+            //equals' parameter type is left null, like getNext's value
+            MethodHeaderNode hash = new MethodHeaderNode();
+            hash.name = "hash";
+            hash.returns.add(new VariableDeclarationNode());
+            hash.returns.getFirst().type = "number";
+            MethodHeaderNode equals = new MethodHeaderNode();
+            equals.name = "equals";
+            equals.parameters.add(new VariableDeclarationNode());
+            equals.returns.add(new VariableDeclarationNode());
+            equals.returns.getFirst().type = "boolean";
+            interfaceNumbers.put("hashable", interfaceHeaders.size());
+            interfaceHeaders.add(List.of(hash, equals));
+        }
+        //maps and sets call hash() and equals() through their slots, so a declared hashable interface must have them
+        List<MethodHeaderNode> hashable = interfaceHeaders.get(interfaceNumbers.get("hashable"));
+        hashSlot = -1;
+        equalsSlot = -1;
+        for (int slot = 0; slot < hashable.size(); slot++) {
+            MethodHeaderNode header = hashable.get(slot);
+            if (header.name.equals("hash") && header.parameters.isEmpty() && header.returns.size() == 1
+                    && "number".equals(header.returns.getFirst().type)) {
+                hashSlot = slot;
+            } else if (header.name.equals("equals") && header.parameters.size() == 1 && header.returns.size() == 1
+                    && "boolean".equals(header.returns.getFirst().type)) {
+                equalsSlot = slot;
+            }
+        }
+        if (hashSlot < 0 || equalsSlot < 0) {
+            throw new RuntimeException("Interface hashable must have hash() : number and equals(other) : boolean");
+        }
+    }
+
+    private void buildItables(ClassNode classNode) {
+        classNode.itables = new MethodDeclarationNode[interfaceHeaders.size()][];
+        for (String interfaceName : classNode.interfaces) {
+            Integer number = interfaceNumbers.get(interfaceName);
+            if (number == null) {
+                throw new RuntimeException("Class " + classNode.name + " implements " + interfaceName + ", which isn't an interface");
+            }
+            List<MethodHeaderNode> headers = interfaceHeaders.get(number);
+            MethodDeclarationNode[] itable = new MethodDeclarationNode[headers.size()];
+            for (int slot = 0; slot < headers.size(); slot++) {
+                MethodHeaderNode header = headers.get(slot);
+                itable[slot] = classNode.methods.stream()
+                        .filter(method -> implementsHeader(method, header))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("Class " + classNode.name + " doesn't implement " + describe(header) + " of interface " + interfaceName));
+            }
+            classNode.itables[number] = itable;
+        }
+    }
+
+    private static boolean implementsHeader(MethodDeclarationNode method, MethodHeaderNode header) {
+        return method.name.equals(header.name) && !method.isShared && !method.isPrivate
+                && sameTypes(method.parameters, header.parameters) && sameTypes(method.returns, header.returns);
+    }
+
+    private static boolean sameTypes(List<VariableDeclarationNode> declared, List<VariableDeclarationNode> required) {
+        if (declared.size() != required.size()) {
+            return false;
+        }
+        for (int i = 0; i < declared.size(); i++) {
+            String type = required.get(i).type;
+            if (type != null && !type.equals(declared.get(i).type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describe(MethodHeaderNode header) {
+        return header.name + "(" + String.join(", ", header.parameters.stream().map(p -> p.type == null ? "any" : p.type).toList()) + ")"
+                + (header.returns.isEmpty() ? "" : " : " + String.join(", ", header.returns.stream().map(r -> r.type == null ? "any" : r.type).toList()));
+    }
+
+    /**
+     * The interface number and slot for a call on a variable whose type is an interface, or null if the call isn't one
+     * (or more than one header of the interface could match it - then the Interpreter chooses by the parameters' types).
+     * A name that is also a class is left alone, since the Interpreter looks for a class first.
+     */
+    private int[] itableSlot(Shape shape, Optional<String> objectName, String methodName, int parameterCount, int returnCount, HashMap<String, String> locals) {
+        if (objectName.isEmpty() || top.Classes.stream().anyMatch(c -> c.name.equals(objectName.get()))) {
+            return null;
+        }
+        String name = objectName.get();
+        String type = locals.containsKey(name) ? locals.get(name) : shape.slotOf(name) >= 0 ? shape.type(shape.slotOf(name)) : null;
+        Integer number = type == null ? null : interfaceNumbers.get(type);
+        if (number == null) {
+            return null;
+        }
+        List<MethodHeaderNode> headers = interfaceHeaders.get(number);
+        int found = -1;
+        for (int slot = 0; slot < headers.size(); slot++) {
+            MethodHeaderNode header = headers.get(slot);
+            if (header.name.equals(methodName) && header.parameters.size() == parameterCount
+                    && (returnCount == 0 || returnCount == header.returns.size())) {
+                if (found >= 0) {
+                    return null;
+                }
+                found = slot;
+            }
+        }
+        return found < 0 ? null : new int[] {number, found};
+    }
+
+    private void linkCall(Shape shape, MethodCallStatementNode call, HashMap<String, String> locals) {
+        int[] slot = itableSlot(shape, call.objectName, call.methodName, call.parameters.size(), call.returnValues.size(), locals);
+        if (slot != null) {
+            call.interfaceNumber = slot[0];
+            call.itableSlot = slot[1];
+        }
+    }
+
+    private void linkCall(Shape shape, MethodCallExpressionNode call, HashMap<String, String> locals) {
+        int[] slot = itableSlot(shape, call.objectName, call.methodName, call.parameters.size(), 0, locals);
+        if (slot != null) {
+            call.interfaceNumber = slot[0];
+            call.itableSlot = slot[1];
+        }
+    }
+
+    //              Accessors and mutators
+
+    private static void addAccessors(ClassNode classNode) {
+        Shape shape = Shape.of(classNode);
+        for (MemberNode member : classNode.members) {
+            String name = member.declaration.name;
+            int slot = shape.slotOf(name);
+            if (member.accessor.isPresent()) {
+                MethodDeclarationNode accessor = memberMethod(classNode, member, member.accessor.get());
+                accessor.returns.add(valueOf(member));
+                if (isCopy(member.accessor.get(), "value", name)) {
+                    accessor.accessorSlot = slot;
+                }
+                addMemberMethod(classNode, accessor);
+            }
+            if (member.mutator.isPresent()) {
+                MethodDeclarationNode mutator = memberMethod(classNode, member, member.mutator.get());
+                mutator.parameters.add(valueOf(member));
+                if (isCopy(member.mutator.get(), name, "value")) {
+                    mutator.mutatorSlot = slot;
+                }
+                addMemberMethod(classNode, mutator);
+            }
+        }
+    }
+
+    private static MethodDeclarationNode memberMethod(ClassNode classNode, MemberNode member, List<StatementNode> statements) {
+        String name = member.declaration.name;
+        if (name.equals("value")) {
+            throw new RuntimeException("Member value of " + classNode.name + " can't have an accessor or mutator, \"value\" is the value being read or written");
+        }
+        MethodDeclarationNode method = new MethodDeclarationNode();
+        method.name = name;
+        method.statements = statements;
+        return method;
+    }
+
+    private static void addMemberMethod(ClassNode classNode, MethodDeclarationNode method) {
+        for (MethodDeclarationNode other : classNode.methods) {
+            if (other.name.equals(method.name) && other.parameters.size() == method.parameters.size()) {
+                throw new RuntimeException("Method " + method.name + "() of " + classNode.name + " has the same name as an accessor or mutator");
+            }
+        }
+        classNode.methods.add(method);
+    }
+
+    private static VariableDeclarationNode valueOf(MemberNode member) {
+        VariableDeclarationNode value = new VariableDeclarationNode();
+        value.type = member.declaration.type;
+        value.name = "value";
+        return value;
+    }
+
+    //is the block just "to = from"?
+    private static boolean isCopy(List<StatementNode> statements, String to, String from) {
+        return statements.size() == 1 && statements.getFirst() instanceof AssignmentNode assignment
+                && assignment.target.name.equals(to)
+                && assignment.expression instanceof VariableReferenceNode variable && variable.name.equals(from);
+    }
+
+    //              Member slots
+
+    private void linkMembers(Shape shape, List<StatementNode> statements, HashMap<String, String> locals) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof AssignmentNode assignment) {
+                linkMember(shape, assignment.target, locals);
+                linkMembers(shape, assignment.expression, locals);
+            } else if (statement instanceof MethodCallStatementNode call) {
+                for (VariableReferenceNode target : call.returnValues) {
+                    linkMember(shape, target, locals);
+                }
+                linkCall(shape, call, locals);
+                linkParameters(shape, call.parameters, locals);
+            } else if (statement instanceof JoinNode join) {
+                for (VariableReferenceNode target : join.returnValues) {
+                    linkMember(shape, target, locals);
+                }
+                linkMember(shape, join.task, locals);
+            } else if (statement instanceof IfNode ifNode) {
+                linkMembers(shape, ifNode.condition, locals);
+                linkMembers(shape, ifNode.statements, locals);
+                if (ifNode.elseStatement.isPresent()) {
+                    linkMembers(shape, ifNode.elseStatement.get().statements, locals);
+                }
+            } else if (statement instanceof MatchNode match) {
+                linkMatch(match);
+                linkMembers(shape, match.subject, locals);
+                for (CaseNode caseNode : match.cases) {
+                    linkMembers(shape, caseNode.statements, locals);
+                }
+                if (match.elseStatement.isPresent()) {
+                    linkMembers(shape, match.elseStatement.get().statements, locals);
+                }
+            } else if (statement instanceof LoopNode loop) {
+                if (loop.assignment.isPresent()) {
+                    linkMember(shape, loop.assignment.get(), locals);
+                }
+                linkMembers(shape, loop.expression, locals);
+                linkMembers(shape, loop.statements, locals);
+            } else if (statement instanceof CountedLoopNode loop) {
+                loop.kernel = ArrayKernel.of(loop, locals);
+                linkMember(shape, loop.variable, locals);
+                linkMembers(shape, loop.from, locals);
+                linkMembers(shape, loop.until, locals);
+                if (loop.step.isPresent()) {
+                    linkMembers(shape, loop.step.get(), locals);
+                }
+                linkMembers(shape, loop.statements, locals);
+            } else if (statement instanceof ParallelLoopNode loop) {
+                //the loop variable and reductions are always locals
+                linkMembers(shape, loop.from, locals);
+                linkMembers(shape, loop.until, locals);
+                if (loop.step.isPresent()) {
+                    linkMembers(shape, loop.step.get(), locals);
+                }
+                linkMembers(shape, loop.statements, locals);
+            }
+        }
+    }
+
+    private void linkMembers(Shape shape, ExpressionNode expression, HashMap<String, String> locals) {
+        if (expression instanceof VariableReferenceNode variable) {
+            linkMember(shape, variable, locals);
+        } else if (expression instanceof MathOpNode math) {
+            linkMembers(shape, math.left, locals);
+            linkMembers(shape, math.right, locals);
+        } else if (expression instanceof CompareNode compare) {
+            linkMembers(shape, compare.left, locals);
+            linkMembers(shape, compare.right, locals);
+        } else if (expression instanceof BooleanOpNode bool) {
+            linkMembers(shape, bool.left, locals);
+            linkMembers(shape, bool.right, locals);
+            bool.reorderable = "boolean".equals(safeType(shape, bool.left, locals)) && "boolean".equals(safeType(shape, bool.right, locals));
+        } else if (expression instanceof NotOpNode not) {
+            linkMembers(shape, not.left, locals);
+        } else if (expression instanceof MethodCallExpressionNode call) {
+            linkCall(shape, call, locals);
+            linkParameters(shape, call.parameters, locals);
+        } else if (expression instanceof AsyncCallNode async) {
+            linkCall(shape, async.call, locals);
+            linkParameters(shape, async.call.parameters, locals);
+        } else if (expression instanceof NewNode newNode) {
+            linkNew(newNode);
+            linkParameters(shape, newNode.parameters, locals);
+        } else if (expression instanceof NumericLiteralNode number) {
+            number.constant = pooled(number);
+        } else if (expression instanceof StringLiteralNode string) {
+            string.constant = pooled(string);
+        } else if (expression instanceof CharLiteralNode character) {
+            character.constant = pooled(character);
+        }
+    }
+
+    private InterpreterDataType pooled(ExpressionNode literal) {
+        return constantPool.computeIfAbsent(constantKey(literal), key -> {
+            InterpreterDataType value = key instanceof Long whole ? NumberIDT.of(whole) : SharedMap.value(key);
+            switch (value) {
+                case NumberIDT number -> number.constant = true;
+                case StringIDT string -> string.constant = true;
+                case CharIDT character -> character.constant = true;
+                default -> throw new IllegalStateException("Not a literal: " + literal);
+            }
+            return value;
+        });
+    }
+
+    /**
+     * @return the type of an expression that can be evaluated at any time without changing anything or failing (literals,
+     *      known variables, number math other than division, comparisons of numbers, and/or/not of booleans), or null
+     */
+    private static String safeType(Shape shape, ExpressionNode expression, HashMap<String, String> locals) {
+        return switch (expression) {
+            case BooleanLiteralNode ignored -> "boolean";
+            case NumericLiteralNode ignored -> "number";
+            case StringLiteralNode ignored -> "string";
+            case CharLiteralNode ignored -> "character";
+            case VariableReferenceNode variable -> locals.containsKey(variable.name) ? locals.get(variable.name)
+                    : variable.memberSlot >= 0 ? shape.type(variable.memberSlot) : null;
+            case NotOpNode not -> "boolean".equals(safeType(shape, not.left, locals)) ? "boolean" : null;
+            case BooleanOpNode bool -> "boolean".equals(safeType(shape, bool.left, locals)) && "boolean".equals(safeType(shape, bool.right, locals)) ? "boolean" : null;
+            case CompareNode compare -> "number".equals(safeType(shape, compare.left, locals)) && "number".equals(safeType(shape, compare.right, locals)) ? "boolean" : null;
+            case MathOpNode math -> math.op != MathOpNode.MathOperations.divide
+                    && "number".equals(safeType(shape, math.left, locals)) && "number".equals(safeType(shape, math.right, locals)) ? "number" : null;
+            default -> null;
+        };
+    }
+
+    private void linkParameters(Shape shape, List<ExpressionNode> expressions, HashMap<String, String> locals) {
+        for (ExpressionNode expression : expressions) {
+            linkMembers(shape, expression, locals);
+        }
+    }
+
+    private static void linkMember(Shape shape, VariableReferenceNode variable, HashMap<String, String> locals) {
+        variable.memberSlot = locals.containsKey(variable.name) ? -1 : shape.slotOf(variable.name);
+    }
+
+    //              New
+
+    //an unknown class is left for the Interpreter to report, in case that "new" never runs
+    private void linkNew(NewNode newNode) {
+        for (ClassNode classNode : top.Classes) {
+            if (classNode.name.equals(newNode.className)) {
+                newNode.classNode = classNode;
+                newNode.constructor = onlyConstructor(classNode, newNode.parameters.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the constructor of the class that takes this many parameters (built-in constructors take any number), or
+     *      null if there is none or more than one - then the Interpreter chooses by the parameters' types
+     */
+    private static ConstructorNode onlyConstructor(ClassNode classNode, int parameterCount) {
+        ConstructorNode found = null;
+        for (ConstructorNode constructor : classNode.constructors) {
+            if (constructor instanceof BuiltInConstructorNode || constructor.parameters.size() == parameterCount) {
+                if (found != null) {
+                    return null;
+                }
+                found = constructor;
+            }
+        }
+        return found;
+    }
+
+    private void checkMemberTypes(ClassNode classNode) {
+        for (MemberNode member : classNode.members) {
+            String type = member.declaration.type;
+            boolean simple = List.of("number", "string", "boolean", "character", "task", "decimal").contains(type);
+            if (!simple && top.Classes.stream().noneMatch(c -> c.name.equals(type)) && top.Interfaces.stream().noneMatch(i -> i.name.equals(type))) {
+                throw new RuntimeException("Unknown type: " + type + " (member " + member.declaration.name + " of " + classNode.name + ")");
+            }
+        }
+    }
+
+    //              Break and return
+
+    /**
+     * A break must be inside a loop, and can't leave a parallel loop (its iterations don't run in order). A return
+     * can't be anywhere inside a parallel loop.
+     */
+    private static void checkExits(ClassNode classNode, List<StatementNode> statements, boolean inLoop, boolean inParallelLoop) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof BreakNode && !inLoop) {
+                throw new RuntimeException((inParallelLoop ? "Can't break out of a parallel loop" : "break outside of a loop") + " in class " + classNode.name);
+            } else if (statement instanceof ReturnNode && inParallelLoop) {
+                throw new RuntimeException("Can't return from inside a parallel loop in class " + classNode.name);
+            } else if (statement instanceof IfNode ifNode) {
+                checkExits(classNode, ifNode.statements, inLoop, inParallelLoop);
+                if (ifNode.elseStatement.isPresent()) {
+                    checkExits(classNode, ifNode.elseStatement.get().statements, inLoop, inParallelLoop);
+                }
+            } else if (statement instanceof MatchNode match) {
+                for (CaseNode caseNode : match.cases) {
+                    checkExits(classNode, caseNode.statements, inLoop, inParallelLoop);
+                }
+                if (match.elseStatement.isPresent()) {
+                    checkExits(classNode, match.elseStatement.get().statements, inLoop, inParallelLoop);
+                }
+            } else if (statement instanceof LoopNode loop) {
+                checkExits(classNode, loop.statements, true, inParallelLoop);
+            } else if (statement instanceof CountedLoopNode loop) {
+                checkExits(classNode, loop.statements, true, inParallelLoop);
+            } else if (statement instanceof ParallelLoopNode loop) {
+                checkExits(classNode, loop.statements, false, true);
+            }
+        }
+    }
+
+    //              Match
+
+    /**
+     * Turn chains of "if x == 1 ... else if x == 2 ... else if x == 3 ..." on one number variable into a match, which
+     * finds its branch with one table lookup instead of one compare per branch. Shorter chains aren't worth it.
+     */
+    private static void convertIfChains(Shape shape, List<StatementNode> statements, HashMap<String, String> locals) {
+        for (int i = 0; i < statements.size(); i++) {
+            StatementNode statement = statements.get(i);
+            if (statement instanceof IfNode ifNode) {
+                MatchNode match = ifChainToMatch(shape, ifNode, locals);
+                if (match != null) {
+                    statements.set(i, match);
+                    statement = match;
+                }
+            }
+            for (List<StatementNode> block : blocksOf(statement)) {
+                convertIfChains(shape, block, locals);
+            }
+        }
+    }
+
+    private static MatchNode ifChainToMatch(Shape shape, IfNode ifNode, HashMap<String, String> locals) {
+        VariableReferenceNode subject = testedVariable(ifNode.condition);
+        if (subject == null) {
+            return null;
+        }
+        int slot = shape.slotOf(subject.name);
+        String type = locals.containsKey(subject.name) ? locals.get(subject.name) : slot >= 0 ? shape.type(slot) : null;
+        if (!"number".equals(type)) {
+            return null;
+        }
+        MatchNode match = new MatchNode();
+        match.subject = subject;
+        Set<Object> keys = new HashSet<>();
+        int tests = 0;
+        IfNode test = ifNode;
+        while (true) {
+            NumericLiteralNode constant = testedConstant(test.condition, subject.name);
+            tests++;
+            //a later test of the same number could never be true
+            if (keys.add(constantKey(constant))) {
+                CaseNode caseNode = new CaseNode();
+                caseNode.constants.add(constant);
+                caseNode.statements = test.statements;
+                match.cases.add(caseNode);
+            }
+            Optional<ElseNode> elseStatement = test.elseStatement;
+            if (elseStatement.isPresent() && elseStatement.get().statements.size() == 1
+                    && elseStatement.get().statements.getFirst() instanceof IfNode next && testedConstant(next.condition, subject.name) != null) {
+                test = next;
+            } else {
+                match.elseStatement = elseStatement;
+                break;
+            }
+        }
+        return tests >= 3 ? match : null;
+    }
+
+    //the variable in "x == number" (either way around), or null if the condition isn't that
+    private static VariableReferenceNode testedVariable(ExpressionNode condition) {
+        if (condition instanceof CompareNode compare && compare.op == CompareNode.CompareOperations.eq) {
+            if (compare.left instanceof VariableReferenceNode variable && compare.right instanceof NumericLiteralNode) {
+                return variable;
+            }
+            if (compare.right instanceof VariableReferenceNode variable && compare.left instanceof NumericLiteralNode) {
+                return variable;
+            }
+        }
+        return null;
+    }
+
+    //the number in "variable == number" (either way around), or null if the condition isn't that
+    private static NumericLiteralNode testedConstant(ExpressionNode condition, String variable) {
+        VariableReferenceNode tested = testedVariable(condition);
+        if (tested == null || !tested.name.equals(variable)) {
+            return null;
+        }
+        CompareNode compare = (CompareNode) condition;
+        return (NumericLiteralNode) (compare.left == tested ? compare.right : compare.left);
+    }
+
+    private static List<List<StatementNode>> blocksOf(StatementNode statement) {
+        List<List<StatementNode>> blocks = new ArrayList<>();
+        if (statement instanceof IfNode ifNode) {
+            blocks.add(ifNode.statements);
+            ifNode.elseStatement.ifPresent(e -> blocks.add(e.statements));
+        } else if (statement instanceof MatchNode match) {
+            for (CaseNode caseNode : match.cases) {
+                blocks.add(caseNode.statements);
+            }
+            match.elseStatement.ifPresent(e -> blocks.add(e.statements));
+        } else if (statement instanceof LoopNode loop) {
+            blocks.add(loop.statements);
+        } else if (statement instanceof CountedLoopNode loop) {
+            blocks.add(loop.statements);
+        } else if (statement instanceof ParallelLoopNode loop) {
+            blocks.add(loop.statements);
+        }
+        return blocks;
+    }
+
+    /**
+     * Build the match's jump table: a case index per constant, in an array indexed by the constant when the constants
+     * are whole numbers close together, otherwise in a hash table keyed like SharedMap's keys.
+     */
+    private static void linkMatch(MatchNode match) {
+        HashMap<Object, Integer> table = new HashMap<>();
+        for (int i = 0; i < match.cases.size(); i++) {
+            for (ExpressionNode constant : match.cases.get(i).constants) {
+                if (table.put(constantKey(constant), i) != null) {
+                    throw new RuntimeException("Case " + constant + " appears more than once in match " + match.subject);
+                }
+            }
+        }
+        match.table = table;
+        match.denseTable = null;
+        long low = Long.MAX_VALUE;
+        long high = Long.MIN_VALUE;
+        for (Object key : table.keySet()) {
+            if (!(key instanceof Long whole) || Math.abs(whole) > 1 << 30) {
+                return;
+            }
+            low = Math.min(low, whole);
+            high = Math.max(high, whole);
+        }
+        long span = high - low + 1;
+        if (span > 1024 || span > 8L * table.size()) {
+            return;
+        }
+        int[] dense = new int[(int) span];
+        Arrays.fill(dense, -1);
+        for (Map.Entry<Object, Integer> entry : table.entrySet()) {
+            dense[(int) ((Long) entry.getKey() - low)] = entry.getValue();
+        }
+        match.denseFrom = (int) low;
+        match.denseTable = dense;
+    }
+
+    private static Object constantKey(ExpressionNode constant) {
+        return SharedMap.key(switch (constant) {
+            case NumericLiteralNode number -> number.isWhole ? new NumberIDT(number.wholeValue) : new NumberIDT(number.value);
+            case StringLiteralNode string -> new StringIDT(string.value);
+            case CharLiteralNode character -> new CharIDT(character.value);
+            default -> throw new RuntimeException("Can only match a number, string or character constant, not " + constant);
+        });
+    }
+
+    //              Parallel loops
+
+    private void findParallelLoops(ClassNode classNode, List<StatementNode> statements, HashMap<String, String> locals) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof ParallelLoopNode loop) {
+                checkParallelLoop(classNode, loop, locals);
+                findParallelLoops(classNode, loop.statements, locals);
+            } else if (statement instanceof LoopNode loop) {
+                findParallelLoops(classNode, loop.statements, locals);
+            } else if (statement instanceof CountedLoopNode loop) {
+                findParallelLoops(classNode, loop.statements, locals);
+            } else if (statement instanceof IfNode ifNode) {
+                findParallelLoops(classNode, ifNode.statements, locals);
+                if (ifNode.elseStatement.isPresent()) {
+                    findParallelLoops(classNode, ifNode.elseStatement.get().statements, locals);
+                }
+            } else if (statement instanceof MatchNode match) {
+                for (CaseNode caseNode : match.cases) {
+                    findParallelLoops(classNode, caseNode.statements, locals);
+                }
+                if (match.elseStatement.isPresent()) {
+                    findParallelLoops(classNode, match.elseStatement.get().statements, locals);
+                }
+            }
+        }
+    }
+
+    private void checkParallelLoop(ClassNode classNode, ParallelLoopNode loop, HashMap<String, String> locals) {
+        String index = loop.variable.name;
+        if (!"number".equals(locals.get(index))) {
+            throw new RuntimeException("Parallel loop variable " + index + " must be a local number in class " + classNode.name);
+        }
+        Set<String> reduced = new HashSet<>();
+        for (ReductionNode reduction : loop.reductions) {
+            String name = reduction.variable.name;
+            if (!"number".equals(locals.get(name))) {
+                throw new RuntimeException("Parallel loop reduction " + reduction + " must be on a local number in class " + classNode.name);
+            }
+            if (name.equals(index) || !reduced.add(name)) {
+                throw new RuntimeException("Parallel loop variable " + name + " can only be reduced once, and can't be the loop variable");
+            }
+        }
+        checkStatements(classNode, loop.statements, locals, loop);
+    }
+
+    /**
+     * Check that a parallel loop's body (or some part of it) only writes to locals that each worker has its own copy of.
+     */
+    private void checkStatements(ClassNode classNode, List<StatementNode> statements, HashMap<String, String> locals, ParallelLoopNode loop) {
+        for (StatementNode statement : statements) {
+            if (statement instanceof AssignmentNode assignment) {
+                checkTarget(assignment.target, locals, loop);
+                checkExpression(classNode, assignment.expression, locals, loop);
+            } else if (statement instanceof MethodCallStatementNode call) {
+                for (VariableReferenceNode target : call.returnValues) {
+                    checkTarget(target, locals, loop);
+                }
+                checkCall(classNode, call.objectName, call.methodName, call.parameters, locals, loop);
+            } else if (statement instanceof JoinNode join) {
+                for (VariableReferenceNode target : join.returnValues) {
+                    checkTarget(target, locals, loop);
+                }
+            } else if (statement instanceof IfNode ifNode) {
+                checkExpression(classNode, ifNode.condition, locals, loop);
+                checkStatements(classNode, ifNode.statements, locals, loop);
+                if (ifNode.elseStatement.isPresent()) {
+                    checkStatements(classNode, ifNode.elseStatement.get().statements, locals, loop);
+                }
+            } else if (statement instanceof MatchNode match) {
+                checkExpression(classNode, match.subject, locals, loop);
+                for (CaseNode caseNode : match.cases) {
+                    checkStatements(classNode, caseNode.statements, locals, loop);
+                }
+                if (match.elseStatement.isPresent()) {
+                    checkStatements(classNode, match.elseStatement.get().statements, locals, loop);
+                }
+            } else if (statement instanceof LoopNode inner) {
+                if (inner.assignment.isPresent()) {
+                    checkTarget(inner.assignment.get(), locals, loop);
+                }
+                checkExpression(classNode, inner.expression, locals, loop);
+                checkStatements(classNode, inner.statements, locals, loop);
+            } else if (statement instanceof CountedLoopNode inner) {
+                checkTarget(inner.variable, locals, loop);
+                checkExpression(classNode, inner.from, locals, loop);
+                checkExpression(classNode, inner.until, locals, loop);
+                if (inner.step.isPresent()) {
+                    checkExpression(classNode, inner.step.get(), locals, loop);
+                }
+                checkStatements(classNode, inner.statements, locals, loop);
+            } else if (statement instanceof ParallelLoopNode inner) {
+                checkTarget(inner.variable, locals, loop);
+                for (ReductionNode reduction : inner.reductions) {
+                    checkTarget(reduction.variable, locals, loop);
+                }
+                checkExpression(classNode, inner.from, locals, loop);
+                checkExpression(classNode, inner.until, locals, loop);
+                if (inner.step.isPresent()) {
+                    checkExpression(classNode, inner.step.get(), locals, loop);
+                }
+                checkStatements(classNode, inner.statements, locals, loop);
+            }
+        }
+    }
+
+    private void checkTarget(VariableReferenceNode target, HashMap<String, String> locals, ParallelLoopNode loop) {
+        if (!locals.containsKey(target.name)) {
+            throw new RuntimeException("Parallel loop over " + loop.variable + " writes to member " + target.name + ", which every worker shares");
+        }
+        if (target.name.equals(loop.variable.name)) {
+            throw new RuntimeException("Parallel loop can't assign to its loop variable " + target.name);
+        }
+    }
+
+    private void checkExpression(ClassNode classNode, ExpressionNode expression, HashMap<String, String> locals, ParallelLoopNode loop) {
+        if (expression instanceof MathOpNode math) {
+            checkExpression(classNode, math.left, locals, loop);
+            checkExpression(classNode, math.right, locals, loop);
+        } else if (expression instanceof CompareNode compare) {
+            checkExpression(classNode, compare.left, locals, loop);
+            checkExpression(classNode, compare.right, locals, loop);
+        } else if (expression instanceof BooleanOpNode bool) {
+            checkExpression(classNode, bool.left, locals, loop);
+            checkExpression(classNode, bool.right, locals, loop);
+        } else if (expression instanceof NotOpNode not) {
+            checkExpression(classNode, not.left, locals, loop);
+        } else if (expression instanceof MethodCallExpressionNode call) {
+            checkCall(classNode, call.objectName, call.methodName, call.parameters, locals, loop);
+        } else if (expression instanceof AsyncCallNode async) {
+            checkCall(classNode, async.call.objectName, async.call.methodName, async.call.parameters, locals, loop);
+        } else if (expression instanceof NewNode newNode) {
+            for (ExpressionNode parameter : newNode.parameters) {
+                checkExpression(classNode, parameter, locals, loop);
+            }
+        }
+    }
+
+    /**
+     * A call from inside a parallel loop is OK if the method it can reach doesn't write shared state, and it doesn't
+     * assign to a parameter that we passed a member to.
+     */
+    private void checkCall(ClassNode classNode, Optional<String> objectName, String methodName, List<ExpressionNode> parameters, HashMap<String, String> locals, ParallelLoopNode loop) {
+        for (ExpressionNode parameter : parameters) {
+            checkExpression(classNode, parameter, locals, loop);
+        }
+        for (MethodDeclarationNode method : resolve(classNode, objectName, methodName, locals)) {
+            MethodWrites writes = writesOf(classOf(method), method);
+            if (writes.sharedWrite != null) {
+                throw new RuntimeException("Parallel loop over " + loop.variable + " calls " + methodName + "(), which " + writes.sharedWrite);
+            }
+            for (int i : writes.parameters) {
+                if (i < parameters.size() && parameters.get(i) instanceof VariableReferenceNode variable && !locals.containsKey(variable.name)) {
+                    throw new RuntimeException("Parallel loop over " + loop.variable + " passes member " + variable.name + " to " + methodName + "(), which assigns to it");
+                }
+            }
+        }
+    }
+
+    /**
+     * Work out (once per method) what a method writes outside of its own locals. Calls are followed; a method that
+     * (directly or not) calls itself is assumed not to write anything more than what we find elsewhere in it.
+     */
+    private MethodWrites writesOf(ClassNode classNode, MethodDeclarationNode method) {
+        MethodWrites writes = methodWrites.get(method);
+        if (writes != null) {
+            return writes;
+        }
+        writes = new MethodWrites();
+        methodWrites.put(method, writes);
+        if (method instanceof BuiltInMethodDeclarationNode builtIn) {
+            //a built-in only writes its own object, and only one that isn't thread-safe matters
+            if (builtIn.changesObject) {
+                writes.sharedWrite = "changes the " + classNode.name + " it is called on, which isn't safe from several threads";
+            }
+            return writes;
+        }
+        HashMap<String, String> locals = variableTypes(method.parameters, method.locals, method.returns);
+        collectWrites(classNode, method, method.statements, locals, writes);
+        return writes;
+    }
+
+    private void collectWrites(ClassNode classNode, MethodDeclarationNode method, List<StatementNode> statements, HashMap<String, String> locals, MethodWrites writes) {
+        for (StatementNode statement : statements) {
+            if (writes.sharedWrite != null) {
+                return;
+            }
+            if (statement instanceof AssignmentNode assignment) {
+                noteWrite(method, assignment.target.name, locals, writes);
+                collectCallWrites(classNode, method, assignment.expression, locals, writes);
+            } else if (statement instanceof MethodCallStatementNode call) {
+                for (VariableReferenceNode target : call.returnValues) {
+                    noteWrite(method, target.name, locals, writes);
+                }
+                noteCall(classNode, method, call.objectName, call.methodName, call.parameters, locals, writes);
+            } else if (statement instanceof JoinNode join) {
+                for (VariableReferenceNode target : join.returnValues) {
+                    noteWrite(method, target.name, locals, writes);
+                }
+            } else if (statement instanceof IfNode ifNode) {
+                collectCallWrites(classNode, method, ifNode.condition, locals, writes);
+                collectWrites(classNode, method, ifNode.statements, locals, writes);
+                if (ifNode.elseStatement.isPresent()) {
+                    collectWrites(classNode, method, ifNode.elseStatement.get().statements, locals, writes);
+                }
+            } else if (statement instanceof MatchNode match) {
+                collectCallWrites(classNode, method, match.subject, locals, writes);
+                for (CaseNode caseNode : match.cases) {
+                    collectWrites(classNode, method, caseNode.statements, locals, writes);
+                }
+                if (match.elseStatement.isPresent()) {
+                    collectWrites(classNode, method, match.elseStatement.get().statements, locals, writes);
+                }
+            } else if (statement instanceof LoopNode loop) {
+                if (loop.assignment.isPresent()) {
+                    noteWrite(method, loop.assignment.get().name, locals, writes);
+                }
+                collectCallWrites(classNode, method, loop.expression, locals, writes);
+                collectWrites(classNode, method, loop.statements, locals, writes);
+            } else if (statement instanceof CountedLoopNode loop) {
+                noteWrite(method, loop.variable.name, locals, writes);
+                collectCallWrites(classNode, method, loop.from, locals, writes);
+                collectCallWrites(classNode, method, loop.until, locals, writes);
+                if (loop.step.isPresent()) {
+                    collectCallWrites(classNode, method, loop.step.get(), locals, writes);
+                }
+                collectWrites(classNode, method, loop.statements, locals, writes);
+            } else if (statement instanceof ParallelLoopNode loop) {
+                //its own body was checked on its own; the loop variable and reductions are the method's locals
+                noteWrite(method, loop.variable.name, locals, writes);
+                for (ReductionNode reduction : loop.reductions) {
+                    noteWrite(method, reduction.variable.name, locals, writes);
+                }
+            }
+        }
+    }
+
+    private void collectCallWrites(ClassNode classNode, MethodDeclarationNode method, ExpressionNode expression, HashMap<String, String> locals, MethodWrites writes) {
+        if (expression instanceof MathOpNode math) {
+            collectCallWrites(classNode, method, math.left, locals, writes);
+            collectCallWrites(classNode, method, math.right, locals, writes);
+        } else if (expression instanceof CompareNode compare) {
+            collectCallWrites(classNode, method, compare.left, locals, writes);
+            collectCallWrites(classNode, method, compare.right, locals, writes);
+        } else if (expression instanceof BooleanOpNode bool) {
+            collectCallWrites(classNode, method, bool.left, locals, writes);
+            collectCallWrites(classNode, method, bool.right, locals, writes);
+        } else if (expression instanceof NotOpNode not) {
+            collectCallWrites(classNode, method, not.left, locals, writes);
+        } else if (expression instanceof MethodCallExpressionNode call) {
+            noteCall(classNode, method, call.objectName, call.methodName, call.parameters, locals, writes);
+        } else if (expression instanceof AsyncCallNode async) {
+            noteCall(classNode, method, async.call.objectName, async.call.methodName, async.call.parameters, locals, writes);
+        }
+    }
+
+    private void noteWrite(MethodDeclarationNode method, String name, HashMap<String, String> locals, MethodWrites writes) {
+        if (!locals.containsKey(name)) {
+            writes.sharedWrite = "writes to member " + name;
+            return;
+        }
+        for (int i = 0; i < method.parameters.size(); i++) {
+            if (method.parameters.get(i).name.equals(name)) {
+                //parameters are the caller's variables, so this is a write to whatever the caller passed
+                writes.parameters.add(i);
+            }
+        }
+    }
+
+    private void noteCall(ClassNode classNode, MethodDeclarationNode method, Optional<String> objectName, String methodName, List<ExpressionNode> parameters, HashMap<String, String> locals, MethodWrites writes) {
+        List<MethodDeclarationNode> targets;
+        try {
+            targets = resolve(classNode, objectName, methodName, locals);
+        } catch (RuntimeException e) {
+            writes.sharedWrite = "calls " + methodName + "() on something we can't check";
+            return;
+        }
+        for (MethodDeclarationNode target : targets) {
+            MethodWrites targetWrites = writesOf(classOf(target), target);
+            if (targetWrites.sharedWrite != null) {
+                writes.sharedWrite = "calls " + target.name + "(), which " + targetWrites.sharedWrite;
+                return;
+            }
+            //if it assigns to a parameter that we passed one of our own variables to, that's a write by us
+            for (int i : targetWrites.parameters) {
+                if (i < parameters.size() && parameters.get(i) instanceof VariableReferenceNode variable) {
+                    noteWrite(method, variable.name, locals, writes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the methods a call could run, the same way the interpreter looks them up (no object name: this class;
+     * object name is a variable: the variable's class, or every class implementing the variable's interface; object
+     * name is a class: that class).
+     */
+    private List<MethodDeclarationNode> resolve(ClassNode classNode, Optional<String> objectName, String methodName, HashMap<String, String> locals) {
+        ClassNode target = classNode;
+        if (objectName.isPresent()) {
+            String name = objectName.get();
+            String type = locals.get(name);
+            if (type == null) {
+                type = classNode.members.stream()
+                        .filter(m -> m.declaration.name.equals(name))
+                        .map(m -> m.declaration.type)
+                        .findFirst()
+                        .orElse(name);
+            }
+            String className = type;
+            if (interfaceNumbers.containsKey(type)) {
+                List<MethodDeclarationNode> methods = new ArrayList<>();
+                for (ClassNode implementing : top.Classes) {
+                    if (implementing.interfaces.contains(type)) {
+                        methods.addAll(implementing.methods.stream().filter(m -> m.name.equals(methodName)).toList());
+                    }
+                }
+                return methods;
+            }
+            target = top.Classes.stream()
+                    .filter(c -> c.name.equals(className))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Unable to find the class of " + name));
+        }
+        List<MethodDeclarationNode> methods = new ArrayList<>();
+        for (MethodDeclarationNode method : target.methods) {
+            if (method.name.equals(methodName)) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    private ClassNode classOf(MethodDeclarationNode method) {
+        for (ClassNode classNode : top.Classes) {
+            if (classNode.methods.contains(method)) {
+                return classNode;
+            }
+        }
+        throw new RuntimeException("Method " + method.name + " doesn't belong to any class");
+    }
+
+    private static HashMap<String, String> variableTypes(List<VariableDeclarationNode> parameters, List<VariableDeclarationNode> locals, List<VariableDeclarationNode> returns) {
+        HashMap<String, String> types = new HashMap<>();
+        for (VariableDeclarationNode variable : parameters) {
+            types.put(variable.name, variable.type);
+        }
+        for (VariableDeclarationNode variable : locals) {
+            types.put(variable.name, variable.type);
+        }
+        for (VariableDeclarationNode variable : returns) {
+            types.put(variable.name, variable.type);
+        }
+        return types;
+    }
+}
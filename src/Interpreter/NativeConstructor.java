@@ -0,0 +1,27 @@
+package Interpreter;
+
+import AST.BuiltInConstructorNode;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// The constructor of a built-in class, written in Java. It sets up the object's nativeState.
+class NativeConstructor extends BuiltInConstructorNode {
+    private final String className;
+    private final int minimumParameters;
+    private final int maximumParameters;
+    private final BiConsumer<ObjectIDT, List<InterpreterDataType>> body;
+
+    NativeConstructor(String className, int minimumParameters, int maximumParameters, BiConsumer<ObjectIDT, List<InterpreterDataType>> body) {
+        this.className = className;
+        this.minimumParameters = minimumParameters;
+        this.maximumParameters = maximumParameters;
+        this.body = body;
+    }
+
+    @Override
+    public void Execute(ObjectIDT object, List<InterpreterDataType> params) {
+        NativeMethod.checkCount("new " + className + "()", params, minimumParameters, maximumParameters);
+        body.accept(object, params);
+    }
+}
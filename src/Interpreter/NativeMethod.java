@@ -0,0 +1,108 @@
+package Interpreter;
+
+import AST.BuiltInMethodDeclarationNode;
+
+import java.util.List;
+
+/**
+ * A method of a built-in class, written in Java. The body gets the object it was called on.
+ * Like console.write, native methods check their own parameters (count and types).
+ */
+class NativeMethod extends BuiltInMethodDeclarationNode {
+    interface Body {
+        List<InterpreterDataType> run(ObjectIDT object, List<InterpreterDataType> params);
+    }
+
+    private final int minimumParameters;
+    private final int maximumParameters;
+    private final Body body;
+
+    /**
+     * @param name - the method name
+     * @param minimumParameters - the fewest parameters it takes
+     * @param maximumParameters - the most parameters it takes (Integer.MAX_VALUE for no limit)
+     * @param body - the code
+     */
+    NativeMethod(String name, int minimumParameters, int maximumParameters, Body body) {
+        this.name = name;
+        this.isVariadic = true;
+        this.minimumParameters = minimumParameters;
+        this.maximumParameters = maximumParameters;
+        this.body = body;
+    }
+
+    NativeMethod(String name, int parameters, Body body) {
+        this(name, parameters, parameters, body);
+    }
+
+    /**
+     * A shared method (called on the class, like console.write); its body gets a null object.
+     */
+    static NativeMethod shared(String name, int parameters, Body body) {
+        NativeMethod method = new NativeMethod(name, parameters, body);
+        method.isShared = true;
+        return method;
+    }
+
+    /**
+     * Mark the method as changing its object in a way that isn't thread-safe (see changesObject).
+     */
+    NativeMethod changing() {
+        changesObject = true;
+        return this;
+    }
+
+    @Override
+    public List<InterpreterDataType> Execute(List<InterpreterDataType> params) {
+        if (!isShared) {
+            throw new RuntimeException(name + "() must be called on an object");
+        }
+        checkCount(name + "()", params, minimumParameters, maximumParameters);
+        return body.run(null, params);
+    }
+
+    @Override
+    public List<InterpreterDataType> Execute(ObjectIDT object, List<InterpreterDataType> params) {
+        checkCount(name + "()", params, minimumParameters, maximumParameters);
+        if (object.nativeState == null) {
+            throw new RuntimeException("Cannot call " + name + "() on a " + object.astNode.name + " that was never created with new");
+        }
+        return body.run(object, params);
+    }
+
+    static void checkCount(String what, List<InterpreterDataType> params, int minimum, int maximum) {
+        if (params.size() < minimum || params.size() > maximum) {
+            String expected = minimum == maximum ? String.valueOf(minimum)
+                    : maximum == Integer.MAX_VALUE ? "at least " + minimum
+                    : minimum + " to " + maximum;
+            throw new RuntimeException(what + " takes " + expected + " parameters, not " + params.size());
+        }
+    }
+
+    static float number(List<InterpreterDataType> params, int index, String what) {
+        return exactNumber(params, index, what).Value;
+    }
+
+    //the number itself, so a whole number stays exact
+    static NumberIDT exactNumber(List<InterpreterDataType> params, int index, String what) {
+        if (params.get(index) instanceof NumberIDT number) {
+            return number;
+        }
+        throw new RuntimeException(what + " must be a number, not " + params.get(index));
+    }
+
+    static String string(List<InterpreterDataType> params, int index, String what) {
+        if (params.get(index) instanceof StringIDT string) {
+            return string.getValue();
+        }
+        throw new RuntimeException(what + " must be a string, not " + params.get(index));
+    }
+
+    static ObjectIDT object(List<InterpreterDataType> params, int index, String what) {
+        if (params.get(index) instanceof ReferenceIDT reference && reference.refersTo.isEmpty()) {
+            throw new RuntimeException(what + " is null (no object has been assigned to it)");
+        }
+        return ObjectIDT.of(params.get(index))
+                .orElseThrow(() -> new RuntimeException(what + " must be an object, not " + params.get(index)));
+    }
+}
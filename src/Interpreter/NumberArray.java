@@ -0,0 +1,235 @@
+package Interpreter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The native state behind Tran's numberArray class: a fixed number of numbers, kept outside the Java heap. Each number
+ * is a 4-byte float (like a number member in an objectArena - whole numbers past 2^24 are rounded) in direct buffers of
+ * 2^20 numbers each, so an array is indexed by a long and can hold far more than 2^31 numbers, and 100 million of them
+ * are 400 MB of buffers instead of 100 million NumberIDTs for the garbage collector to trace.
+ *
+ * A slice is a view: another NumberArray over the same buffers (from "offset", "length" long), so making one copies
+ * nothing and writes through either are seen by both. The buffers' memory goes back when the last array using them is
+ * collected.
+ *
+ * Fill, copy and the aggregates (sum, min, max, dot) run over each buffer's numbers in a plain Java loop. Sums and dot
+ * products add up in a double, and come back whole and exact (like any whole number) when every number added was whole
+ * and no partial sum could have been rounded. Several threads may set different numbers of an array at once.
+ */
+final class NumberArray implements Iterable<InterpreterDataType> {
+    static final int chunkShift = 20;
+    static final int chunkSize = 1 << chunkShift;
+    static final int chunkMask = chunkSize - 1;
+
+    //shared by the array and its slices
+    private final FloatBuffer[] chunks;
+    private final long offset;
+    final long length;
+
+    NumberArray(long length) {
+        if (length < 0) {
+            throw new RuntimeException("A numberArray can't have " + length + " numbers");
+        }
+        long chunkCount = (length + chunkSize - 1) >>> chunkShift;
+        if (chunkCount > Integer.MAX_VALUE) {
+            throw new RuntimeException("A numberArray can't have " + length + " numbers");
+        }
+        this.chunks = new FloatBuffer[(int) chunkCount];
+        for (int c = 0; c < chunks.length; c++) {
+            long numbers = Math.min(chunkSize, length - ((long) c << chunkShift));
+            chunks[c] = ByteBuffer.allocateDirect((int) numbers * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        this.offset = 0;
+        this.length = length;
+    }
+
+    private NumberArray(FloatBuffer[] chunks, long offset, long length) {
+        this.chunks = chunks;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    float get(long index) {
+        checkIndex(index);
+        long at = offset + index;
+        return chunks[(int) (at >>> chunkShift)].get((int) (at & chunkMask));
+    }
+
+    void set(long index, float value) {
+        checkIndex(index);
+        long at = offset + index;
+        chunks[(int) (at >>> chunkShift)].put((int) (at & chunkMask), value);
+    }
+
+    /**
+     * Copy count numbers, starting at index, into "into".
+     */
+    void read(long index, float[] into, int count) {
+        for (int done = 0; done < count; ) {
+            long at = offset + index + done;
+            int start = (int) (at & chunkMask);
+            int run = Math.min(chunkSize - start, count - done);
+            chunks[(int) (at >>> chunkShift)].get(start, into, done, run);
+            done += run;
+        }
+    }
+
+    /**
+     * Copy count numbers from "from" into this array, starting at index.
+     */
+    void write(long index, float[] from, int count) {
+        for (int done = 0; done < count; ) {
+            long at = offset + index + done;
+            int start = (int) (at & chunkMask);
+            int run = Math.min(chunkSize - start, count - done);
+            chunks[(int) (at >>> chunkShift)].put(start, from, done, run);
+            done += run;
+        }
+    }
+
+    /**
+     * Do this array and other share memory at different offsets (one is a slice of the other, or both of a third)? Then
+     * a number written through one is read through the other at a different index.
+     */
+    boolean sharesShifted(NumberArray other) {
+        return chunks == other.chunks && offset != other.offset
+                && offset < other.offset + other.length && other.offset < offset + length;
+    }
+
+    /**
+     * The numbers from "from" up to (not including) "until", sharing this array's memory.
+     */
+    NumberArray slice(long from, long until) {
+        if (from < 0 || until < from || until > length) {
+            throw new RuntimeException("Cannot slice " + from + " until " + until + " from a numberArray of " + length + " numbers");
+        }
+        return new NumberArray(chunks, offset + from, until - from);
+    }
+
+    /**
+     * A new array (with its own memory) holding the same numbers.
+     */
+    NumberArray copy() {
+        NumberArray copy = new NumberArray(length);
+        long done = 0;
+        while (done < length) {
+            long at = offset + done;
+            int from = (int) (at & chunkMask);
+            int into = (int) (done & chunkMask);
+            //the most that fits in what is left of both the source's and the copy's current buffers
+            int count = (int) Math.min(length - done, Math.min(chunkSize - from, chunkSize - into));
+            copy.chunks[(int) (done >>> chunkShift)].put(into, chunks[(int) (at >>> chunkShift)], from, count);
+            done += count;
+        }
+        return copy;
+    }
+
+    void fill(float value) {
+        for (long done = 0; done < length; ) {
+            long at = offset + done;
+            FloatBuffer chunk = chunks[(int) (at >>> chunkShift)];
+            int start = (int) (at & chunkMask);
+            int end = (int) Math.min(chunkSize, start + (length - done));
+            for (int i = start; i < end; i++) {
+                chunk.put(i, value);
+            }
+            done += end - start;
+        }
+    }
+
+    NumberIDT sum() {
+        double sum = 0;
+        double magnitude = 0;
+        boolean whole = true;
+        for (long done = 0; done < length; ) {
+            long at = offset + done;
+            FloatBuffer chunk = chunks[(int) (at >>> chunkShift)];
+            int start = (int) (at & chunkMask);
+            int end = (int) Math.min(chunkSize, start + (length - done));
+            for (int i = start; i < end; i++) {
+                float value = chunk.get(i);
+                sum += value;
+                magnitude += Math.abs(value);
+                whole &= value == Math.rint(value);
+            }
+            done += end - start;
+        }
+        return total(sum, magnitude, whole);
+    }
+
+    /**
+     * @return the smallest number (+infinity for an empty array), or the largest (-infinity for an empty array)
+     */
+    float extreme(boolean largest) {
+        float extreme = largest ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        for (long done = 0; done < length; ) {
+            long at = offset + done;
+            FloatBuffer chunk = chunks[(int) (at >>> chunkShift)];
+            int start = (int) (at & chunkMask);
+            int end = (int) Math.min(chunkSize, start + (length - done));
+            for (int i = start; i < end; i++) {
+                extreme = largest ? Math.max(extreme, chunk.get(i)) : Math.min(extreme, chunk.get(i));
+            }
+            done += end - start;
+        }
+        return extreme;
+    }
+
+    NumberIDT dot(NumberArray other) {
+        if (other.length != length) {
+            throw new RuntimeException("Cannot take the dot product of numberArrays of " + length + " and " + other.length + " numbers");
+        }
+        double sum = 0;
+        double magnitude = 0;
+        boolean whole = true;
+        for (long i = 0; i < length; i++) {
+            //(the product of two floats is exact in a double)
+            double product = (double) get(i) * other.get(i);
+            sum += product;
+            magnitude += Math.abs(product);
+            whole &= product == Math.rint(product);
+        }
+        return total(sum, magnitude, whole);
+    }
+
+    //a double holds every whole number below 2^53 exactly, so a sum of whole terms whose sizes add up to less than that
+    //was never rounded
+    private static NumberIDT total(double sum, double magnitude, boolean whole) {
+        return whole && magnitude < 0x1p53 ? NumberIDT.of((long) sum) : new NumberIDT((float) sum);
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= length) {
+            throw new RuntimeException("numberArray index " + index + " is out of range (0 to " + (length - 1) + ")");
+        }
+    }
+
+    @Override
+    public Iterator<InterpreterDataType> iterator() {
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < length;
+            }
+
+            @Override
+            public InterpreterDataType next() {
+                if (index >= length) {
+                    throw new NoSuchElementException();
+                }
+                return new NumberIDT(get(index++));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "numberArray(" + length + " numbers)";
+    }
+}
@@ -1,22 +1,155 @@
 package Interpreter;
 
-public class NumberIDT implements InterpreterDataType {
+import AST.MathOpNode;
+
+/**
+ * A Tran number. Whole numbers are held exactly, as a long (IsWhole is set and Whole holds the number), so counters and
+ * ids stay right past 2^24 and their math and compares are integer operations. Any other number is a float. Value
+ * always holds the number as a float (rounded, for a whole number past 2^24) for code that only needs a float.
+ *
+ * A float that turns out to be whole (1.5 + 0.5) becomes whole again, so a number is whole exactly when it is an integer
+ * that fits in a long - how it was made doesn't matter. Whole numbers print just like floats do ("6.0").
+ *
+ * Small whole numbers (the ones loops count with) are shared: of() and math give the same NumberIDT for 5 every time,
+ * instead of making one. A shared number is a constant - it is never assigned to, and is copied before it becomes a
+ * variable (see Interpreter.bindParameter).
+ */
+public final class NumberIDT implements InterpreterDataType {
     public float Value;
+    public boolean IsWhole;
+    public long Whole;
+    boolean constant;
+
+    //-128 .. 1023
+    private static final int smallest = -128;
+    private static final NumberIDT[] small = new NumberIDT[1024 - smallest];
+
+    static {
+        for (int i = 0; i < small.length; i++) {
+            small[i] = new NumberIDT((long) (i + smallest));
+            small[i].constant = true;
+        }
+    }
 
     public NumberIDT(float v) {
+        set(v);
+    }
+
+    public NumberIDT(long v) {
+        set(v);
+    }
+
+    /**
+     * @return v, shared if it is small - not a variable, so copy it before changing it
+     */
+    public static NumberIDT of(long v) {
+        return v >= smallest && v < smallest + small.length ? small[(int) v - smallest] : new NumberIDT(v);
+    }
+
+    public void set(float v) {
+        //(NaN and the infinities fail the first test)
+        if (v == (long) v && Math.abs(v) < 0x1p63f) {
+            set((long) v);
+        } else {
+            Value = v;
+            IsWhole = false;
+        }
+    }
+
+    public void set(long v) {
+        Whole = v;
         Value = v;
+        IsWhole = true;
+    }
+
+    /**
+     * The number as one long, for storage that only holds longs (atomicNumber, objectArena records): a whole number n
+     * (up to 2^62) as n << 1, exactly, and any other number as its float bits << 1 | 1.
+     */
+    static long pack(NumberIDT n) {
+        if (n.IsWhole && n.Whole >= -(1L << 62) && n.Whole < 1L << 62) {
+            return n.Whole << 1;
+        }
+        return (long) Float.floatToRawIntBits(n.Value) << 1 | 1;
+    }
+
+    /**
+     * The number that pack() gave these bits for (small whole numbers are shared - see of()).
+     */
+    static NumberIDT unpack(long bits) {
+        return (bits & 1) == 0 ? of(bits >> 1) : new NumberIDT(Float.intBitsToFloat((int) (bits >> 1)));
+    }
+
+    public NumberIDT copy() {
+        return IsWhole ? new NumberIDT(Whole) : new NumberIDT(Value);
+    }
+
+    /**
+     * Are the two the same number? (Like ==, NaN isn't the same as anything.)
+     */
+    public boolean same(NumberIDT other) {
+        return IsWhole && other.IsWhole ? Whole == other.Whole : (double) Value == (double) other.Value;
+    }
+
+    /**
+     * l op r. Two whole numbers give a whole number, unless the answer isn't whole (a division) or doesn't fit in a long;
+     * then, like any math with a number that isn't whole, it is done with floats.
+     */
+    static NumberIDT math(MathOpNode.MathOperations op, NumberIDT l, NumberIDT r) {
+        if (l.IsWhole && r.IsWhole) {
+            long a = l.Whole;
+            long b = r.Whole;
+            try {
+                switch (op) {
+                    case add -> {return of(Math.addExact(a, b));}
+                    case subtract -> {return of(Math.subtractExact(a, b));}
+                    case multiply -> {return of(Math.multiplyExact(a, b));}
+                    case divide -> {
+                        if (b != 0 && a % b == 0) {
+                            return of(Math.divideExact(a, b));
+                        }
+                    }
+                    //x % 0 is NaN, as it is for floats
+                    case modulo -> {
+                        if (b != 0) {
+                            return of(a % b);
+                        }
+                    }
+                }
+            } catch (ArithmeticException tooBig) {
+                //carry on with floats
+            }
+        }
+        float lVal = l.Value;
+        float rVal = r.Value;
+        return switch (op) {
+            case add -> new NumberIDT(lVal + rVal);
+            case subtract -> new NumberIDT(lVal - rVal);
+            case multiply -> new NumberIDT(lVal * rVal);
+            case divide -> {
+                //throws error if dividing by 0
+                if (rVal == 0) {
+                    throw new RuntimeException("Division by zero");
+                }
+                yield new NumberIDT(lVal / rVal);
+            }
+            case modulo -> new NumberIDT(lVal % rVal);
+        };
     }
 
     @Override
     public void Assign(InterpreterDataType in) {
         if (in instanceof NumberIDT inv) {
             Value = inv.Value;
+            IsWhole = inv.IsWhole;
+            Whole = inv.Whole;
         } else {
             throw new RuntimeException("Trying to assign to a number IDT from a " + in.getClass());
         }
     }
 
     public String toString() {
-        return String.valueOf(Value);
+        //for a whole number that a float holds exactly, this is what the float prints
+        return IsWhole ? String.valueOf((double) Whole) : String.valueOf(Value);
     }
 }
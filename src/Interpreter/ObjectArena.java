@@ -0,0 +1,260 @@
+package Interpreter;
+
+import AST.ClassNode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The native state behind Tran's objectArena class: the member values of many objects of one class, kept outside the
+ * Java heap. The class may only have number, boolean and character members. Each object is a fixed-size record
+ * (8 bytes per number, 2 per character, 1 per boolean) in large direct buffers, so a million objects are a handful of
+ * buffers instead of millions of ObjectIDTs, arrays and IDTs for the garbage collector to trace. A number is stored the
+ * way atomicNumber keeps it (see NumberIDT.pack): a whole number exactly, anything else as its float bits, so a number
+ * comes back out just as it went in.
+ *
+ * Objects are addressed by handle (a whole number). Handles go through a handle table, so records can be moved: removing
+ * an object moves the last record into the hole, which keeps the records packed. A removed handle may be handed out
+ * again by a later add(). Since number members are exact, a handle can be kept in another arena's record.
+ *
+ * close() releases every record at once; the arena can't be used after that. One thread at a time uses the arena.
+ */
+class ObjectArena implements Iterable<InterpreterDataType> {
+    private static final int chunkBytes = 1 << 22;
+    //the most a Java array can hold
+    private static final int maximumHandles = Integer.MAX_VALUE - 8;
+
+    private final ClassNode classNode;
+    private final Shape shape;
+    private final int[] offsets;
+    private final int recordSize;
+    private final int recordsPerChunk;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    //handle -> record (-1 for a free handle) and record -> handle
+    private int[] recordOf = new int[16];
+    private int[] handleOf = new int[16];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int nextHandle;
+    private int count;
+    private boolean closed;
+
+    ObjectArena(ClassNode classNode) {
+        this.classNode = classNode;
+        this.shape = Shape.of(classNode);
+        this.offsets = new int[shape.size()];
+        //widest first, so every number stays 8-byte aligned
+        int offset = 0;
+        int alignment = 4;
+        for (String type : List.of("number", "character", "boolean")) {
+            for (int slot = 0; slot < shape.size(); slot++) {
+                if (shape.type(slot).equals(type)) {
+                    offsets[slot] = offset;
+                    offset += width(type);
+                    alignment = Math.max(alignment, width(type));
+                }
+            }
+        }
+        for (int slot = 0; slot < shape.size(); slot++) {
+            if (width(shape.type(slot)) == 0) {
+                throw new RuntimeException("objectArena can only hold classes whose members are numbers, booleans and characters; "
+                        + classNode.name + "." + shape.name(slot) + " is a " + shape.type(slot));
+            }
+        }
+        this.recordSize = Math.max(alignment, (offset + alignment - 1) & -alignment);
+        this.recordsPerChunk = chunkBytes / recordSize;
+        Arrays.fill(recordOf, -1);
+    }
+
+    private static int width(String type) {
+        return switch (type) {
+            case "number" -> 8;
+            case "character" -> 2;
+            case "boolean" -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Copy an object's members into a new record.
+     * @return the new object's handle
+     */
+    synchronized int add(ObjectIDT object) {
+        checkOpen();
+        checkClass(object);
+        for (InterpreterDataType value : object.fields) {
+            if (value == null) {
+                throw new RuntimeException("Cannot add a " + classNode.name + " that was never constructed to an objectArena");
+            }
+        }
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (nextHandle == maximumHandles) {
+                throw new RuntimeException("objectArena is full (" + maximumHandles + " objects)");
+            }
+            handle = nextHandle++;
+            if (handle == recordOf.length) {
+                int old = recordOf.length;
+                recordOf = Arrays.copyOf(recordOf, grown(old));
+                Arrays.fill(recordOf, old, recordOf.length, -1);
+            }
+        }
+        int record = count++;
+        if (record == handleOf.length) {
+            handleOf = Arrays.copyOf(handleOf, grown(handleOf.length));
+        }
+        if (record / recordsPerChunk == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(recordsPerChunk * recordSize).order(ByteOrder.nativeOrder()));
+        }
+        recordOf[handle] = record;
+        handleOf[record] = handle;
+        for (int slot = 0; slot < offsets.length; slot++) {
+            write(record, slot, object.fields[slot]);
+        }
+        return handle;
+    }
+
+    //twice as long, but no longer than there can be handles
+    private static int grown(int length) {
+        return (int) Math.min(length * 2L, maximumHandles);
+    }
+
+    /**
+     * Copy a record back into an object (which gets new member values, not shared with anything).
+     */
+    synchronized void load(int handle, ObjectIDT object) {
+        checkClass(object);
+        int record = recordOf(handle);
+        for (int slot = 0; slot < offsets.length; slot++) {
+            InterpreterDataType value = read(record, slot);
+            //(a small whole number is read as a shared NumberIDT - see NumberIDT.of)
+            object.fields[slot] = value instanceof NumberIDT n ? n.copy() : value;
+        }
+    }
+
+    synchronized InterpreterDataType get(int handle, String member) {
+        return read(recordOf(handle), slotOf(member));
+    }
+
+    synchronized void set(int handle, String member, InterpreterDataType value) {
+        write(recordOf(handle), slotOf(member), value);
+    }
+
+    /**
+     * Free an object's record. The last record moves into its place.
+     */
+    synchronized void remove(int handle) {
+        int record = recordOf(handle);
+        int last = --count;
+        if (record != last) {
+            ByteBuffer to = chunks.get(record / recordsPerChunk);
+            ByteBuffer from = chunks.get(last / recordsPerChunk);
+            to.put((record % recordsPerChunk) * recordSize, from, (last % recordsPerChunk) * recordSize, recordSize);
+            int moved = handleOf[last];
+            handleOf[record] = moved;
+            recordOf[moved] = record;
+        }
+        recordOf[handle] = -1;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, grown(freeCount));
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    synchronized int size() {
+        checkOpen();
+        return count;
+    }
+
+    /**
+     * @return how many bytes of memory outside the heap the arena holds
+     */
+    synchronized long bytes() {
+        return (long) chunks.size() * recordsPerChunk * recordSize;
+    }
+
+    /**
+     * Release all of the records. The buffers' memory goes back when they are collected - a few large objects, however
+     * many records they held.
+     */
+    synchronized void close() {
+        closed = true;
+        chunks.clear();
+        recordOf = new int[0];
+        handleOf = new int[0];
+        freeHandles = new int[0];
+        count = 0;
+        freeCount = 0;
+    }
+
+    private InterpreterDataType read(int record, int slot) {
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int at = (record % recordsPerChunk) * recordSize + offsets[slot];
+        return switch (shape.type(slot)) {
+            case "number" -> NumberIDT.unpack(chunk.getLong(at));
+            case "character" -> new CharIDT(chunk.getChar(at));
+            default -> new BooleanIDT(chunk.get(at) != 0);
+        };
+    }
+
+    private void write(int record, int slot, InterpreterDataType value) {
+        ByteBuffer chunk = chunks.get(record / recordsPerChunk);
+        int at = (record % recordsPerChunk) * recordSize + offsets[slot];
+        String type = shape.type(slot);
+        switch (value) {
+            case NumberIDT n when type.equals("number") -> chunk.putLong(at, NumberIDT.pack(n));
+            case CharIDT c when type.equals("character") -> chunk.putChar(at, c.Value);
+            case BooleanIDT b when type.equals("boolean") -> chunk.put(at, (byte) (b.Value ? 1 : 0));
+            default -> throw new RuntimeException("Cannot store " + value + " in " + classNode.name + "." + shape.name(slot) + ", a " + type);
+        }
+    }
+
+    private int recordOf(int handle) {
+        checkOpen();
+        if (handle < 0 || handle >= nextHandle || recordOf[handle] < 0) {
+            throw new RuntimeException("No object with handle " + handle + " in this objectArena");
+        }
+        return recordOf[handle];
+    }
+
+    private int slotOf(String member) {
+        int slot = shape.slotOf(member);
+        if (slot < 0) {
+            throw new RuntimeException("Class " + classNode.name + " has no member " + member);
+        }
+        return slot;
+    }
+
+    private void checkClass(ObjectIDT object) {
+        if (object.astNode != classNode) {
+            throw new RuntimeException("This objectArena holds " + classNode.name + " objects, not " + object.astNode.name);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new RuntimeException("objectArena for " + classNode.name + " is closed");
+        }
+    }
+
+    /**
+     * The handles of the objects in the arena, in record order (a snapshot, so the loop body may add and remove).
+     */
+    @Override
+    public synchronized Iterator<InterpreterDataType> iterator() {
+        checkOpen();
+        int[] handles = Arrays.copyOf(handleOf, count);
+        return Arrays.stream(handles).<InterpreterDataType>mapToObj(NumberIDT::new).iterator();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "objectArena(" + classNode.name + ", " + count + " objects)";
+    }
+}
@@ -2,14 +2,50 @@ package Interpreter;
 
 import AST.ClassNode;
 
-import java.util.HashMap;
+import java.util.Optional;
 
 public class ObjectIDT implements InterpreterDataType {
-    public final HashMap<String,InterpreterDataType> members = new HashMap<>();
     public final ClassNode astNode;
+    public final Shape shape;
+    //member values, one per slot of the shape (null until a constructor runs)
+    public final InterpreterDataType[] fields;
+    //for objects of built-in classes: the Java object that does the work (the queue behind a channel, ...)
+    public Object nativeState;
 
     public ObjectIDT(ClassNode astNode) {
         this.astNode = astNode;
+        this.shape = Shape.of(astNode);
+        this.fields = new InterpreterDataType[shape.size()];
+    }
+
+    /**
+     * Find a member by name (slower than going through a slot the Linker found).
+     * @return the member's value, or null if there is no such member (or it was never set)
+     */
+    public InterpreterDataType getMember(String name) {
+        int slot = shape.slotOf(name);
+        return slot < 0 ? null : fields[slot];
+    }
+
+    /**
+     * Can this object be used as a "type" - is type its class, or one of its class's interfaces?
+     */
+    public boolean isA(String type) {
+        return astNode.name.equals(type) || astNode.interfaces.contains(type);
+    }
+
+    /**
+     * The object an object value stands for: the object itself, or the object a variable refers to.
+     * @return empty if the value isn't an object (or is a reference to nothing)
+     */
+    public static Optional<ObjectIDT> of(InterpreterDataType value) {
+        if (value instanceof ObjectIDT object) {
+            return Optional.of(object);
+        }
+        if (value instanceof ReferenceIDT reference) {
+            return reference.refersTo;
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -18,8 +54,8 @@ public class ObjectIDT implements InterpreterDataType {
             if (!this.astNode.name.equals(objectIDT.astNode.name)) {
                 throw new RuntimeException("Cannot assign an object of type " + objectIDT.astNode.name + " to " + this.astNode.name);
             }
-            this.members.clear();
-            this.members.putAll(objectIDT.members);
+            System.arraycopy(objectIDT.fields, 0, this.fields, 0, fields.length);
+            this.nativeState = objectIDT.nativeState;
         } else {
             throw new RuntimeException("Trying to assign to an object IDT from a " + in.getClass());
         }
@@ -28,8 +64,11 @@ public class ObjectIDT implements InterpreterDataType {
     @Override
     public String toString() {
         StringBuilder out = new StringBuilder();
-        for (var m : members.entrySet())
-            out.append(m.getKey()).append(" : ").append(m.getValue().toString()).append("\n");
+        if (nativeState != null)
+            out.append(nativeState);
+        for (int i = 0; i < fields.length; i++)
+            if (fields[i] != null)
+                out.append(shape.name(i)).append(" : ").append(fields[i].toString()).append("\n");
         return out.toString();
     }
 }
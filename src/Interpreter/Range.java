@@ -0,0 +1,77 @@
+package Interpreter;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The native state behind Tran's range class: the numbers from, from + step, ... up to (not including) until. Nothing
+ * is stored but the three numbers; a loop over a range counts with a long and writes each value straight into the loop
+ * variable, so it never makes an IDT per value (see Interpreter.interpretLoop).
+ *
+ * When from, until and step are all whole, every number is worked out exactly, as a long (like a counted loop), so a
+ * range past 2^24 doesn't skip or repeat numbers. Otherwise they are floats.
+ */
+final class Range implements Iterable<InterpreterDataType> {
+    //copies, never changed
+    private final NumberIDT from;
+    private final NumberIDT step;
+    private final boolean whole;
+    final long count;
+
+    Range(NumberIDT from, NumberIDT until, NumberIDT step) {
+        if (step.Value == 0 || Float.isNaN(step.Value)) {
+            throw new RuntimeException("A range's step can't be " + step);
+        }
+        this.from = from.copy();
+        this.step = step.copy();
+        long wholeCount = -1;
+        if (from.IsWhole && until.IsWhole && step.IsWhole) {
+            try {
+                wholeCount = Math.max(0, Math.ceilDiv(Math.subtractExact(until.Whole, from.Whole), step.Whole));
+            } catch (ArithmeticException tooBig) {
+                //count with floats
+            }
+        }
+        //(every number of a whole range is between from and until, so from + index * step can't overflow)
+        this.whole = wholeCount >= 0;
+        this.count = whole ? wholeCount : (long) Math.max(0, Math.ceil((until.Value - from.Value) / step.Value));
+    }
+
+    /**
+     * Set "into" to the number at index (so a loop doesn't make a NumberIDT per number).
+     */
+    void setNth(NumberIDT into, long index) {
+        if (whole) {
+            into.set(from.Whole + index * step.Whole);
+        } else {
+            into.set(from.Value + index * step.Value);
+        }
+    }
+
+    @Override
+    public Iterator<InterpreterDataType> iterator() {
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < count;
+            }
+
+            @Override
+            public InterpreterDataType next() {
+                if (index >= count) {
+                    throw new NoSuchElementException();
+                }
+                NumberIDT next = new NumberIDT(0L);
+                setNth(next, index++);
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "range(" + count + " numbers from " + from + " by " + step + ")";
+    }
+}
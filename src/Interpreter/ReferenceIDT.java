@@ -2,17 +2,39 @@ package Interpreter;
 
 import java.util.Optional;
 
+/**
+ * An object variable (local, parameter, return value or member). Variables refer to objects; they don't hold copies,
+ * so assigning one is just pointing it somewhere else, and every variable that refers to an object sees changes made
+ * through any of them.
+ */
 public class ReferenceIDT implements InterpreterDataType{
-    public Optional<ObjectIDT> refersTo;
+    //the declared type (a class or interface name); what this variable may refer to
+    public final String type;
+    public Optional<ObjectIDT> refersTo = Optional.empty();
+
+    public ReferenceIDT(String type) {
+        this.type = type;
+    }
+
+    public ReferenceIDT(String type, ObjectIDT refersTo) {
+        this.type = type;
+        this.refersTo = Optional.of(refersTo);
+    }
+
     @Override
     public void Assign(InterpreterDataType in) {
+        Optional<ObjectIDT> target;
         if (in instanceof ReferenceIDT inv) {
-            refersTo = inv.refersTo;
+            target = inv.refersTo;
         } else if (in instanceof ObjectIDT obj) {
-            refersTo = Optional.of(obj);
+            target = Optional.of(obj);
         } else {
             throw new RuntimeException("Trying to assign to a reference IDT from a " + in.getClass());
         }
+        if (target.isPresent() && !target.get().isA(type)) {
+            throw new RuntimeException("Cannot assign an object of type " + target.get().astNode.name + " to " + type);
+        }
+        refersTo = target;
     }
 
     @Override
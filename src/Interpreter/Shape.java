@@ -0,0 +1,85 @@
+package Interpreter;
+
+import AST.ClassNode;
+import AST.MemberNode;
+
+import java.util.HashMap;
+
+/**
+ * The layout of the objects of one class: each member gets a fixed slot (its position in the class), and an object is
+ * just its shape plus an array of member values. All objects of a class share one shape, which is made the first time
+ * it is needed and kept on the ClassNode. Shapes never change, so sharing them between threads is safe.
+ *
+ * A shape also holds the default value of each member (0, "", false, ' ', or a reference to nothing), so a new object
+ * gets its members by copying them instead of working out every member's type again.
+ */
+public final class Shape {
+    private final String[] names;
+    private final String[] types;
+    private final InterpreterDataType[] defaults;
+    private final HashMap<String, Integer> slots = new HashMap<>();
+
+    private Shape(ClassNode classNode) {
+        names = new String[classNode.members.size()];
+        types = new String[classNode.members.size()];
+        defaults = new InterpreterDataType[classNode.members.size()];
+        for (int i = 0; i < names.length; i++) {
+            MemberNode member = classNode.members.get(i);
+            names[i] = member.declaration.name;
+            types[i] = member.declaration.type;
+            defaults[i] = defaultValue(types[i]);
+            slots.put(names[i], i);
+        }
+    }
+
+    //anything that isn't a simple type is a class or an interface (the Linker checks that it exists)
+    private static InterpreterDataType defaultValue(String type) {
+        return switch (type) {
+            case "number" -> new NumberIDT(0);
+            case "string" -> new StringIDT("");
+            case "boolean" -> new BooleanIDT(false);
+            case "character" -> new CharIDT(' ');
+            case "task" -> new TaskIDT();
+            case "decimal" -> new DecimalIDT(0, 0);
+            default -> new ReferenceIDT(type);
+        };
+    }
+
+    public static Shape of(ClassNode classNode) {
+        Shape shape = classNode.shape;
+        if (shape == null) {
+            shape = new Shape(classNode);
+            classNode.shape = shape;
+        }
+        return shape;
+    }
+
+    /**
+     * @return the slot of the member with this name, or -1 if there is no such member
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int slot) {
+        return names[slot];
+    }
+
+    public String type(int slot) {
+        return types[slot];
+    }
+
+    /**
+     * Give an object's members their default values (each object gets its own copies).
+     */
+    void fillDefaults(InterpreterDataType[] fields) {
+        for (int slot = 0; slot < defaults.length; slot++) {
+            fields[slot] = Interpreter.snapshot(defaults[slot]);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package Interpreter;
+
+import AST.MathOpNode;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The native state behind Tran's concurrentMap class. Keys are simple values (number, string, boolean, character),
+ * kept as the matching Java value so that equal keys hash the same. Values are copied in and out, and are never
+ * changed in place - add() replaces the number - so a reader never sees half of an update.
+ *
+ * Reads never lock; an update locks only the one bin it changes (this is ConcurrentHashMap).
+ * Iterating gives the keys; it sees a consistent view of each bin, but may or may not see updates made while it runs.
+ */
+@SuppressWarnings("serial") //never serialized
+class SharedMap extends ConcurrentHashMap<Object, InterpreterDataType> implements Iterable<InterpreterDataType> {
+
+    /**
+     * Turn a Tran value into something that can be a key.
+     */
+    static Object key(InterpreterDataType value) {
+        return switch (value) {
+            //a number that is an integer is always whole (0 and -0 are both whole 0), so each number has one key
+            case NumberIDT n -> n.IsWhole ? (Object) n.Whole : (Object) n.Value;
+            case StringIDT s -> s.getValue();
+            case BooleanIDT b -> b.Value;
+            case CharIDT c -> c.Value;
+            default -> throw new RuntimeException("Keys must be numbers, strings, booleans or characters, not " + value);
+        };
+    }
+
+    /**
+     * The Tran value for a key.
+     */
+    static InterpreterDataType value(Object key) {
+        return switch (key) {
+            case Long whole -> new NumberIDT(whole);
+            case Float f -> new NumberIDT(f);
+            case String s -> new StringIDT(s);
+            case Boolean b -> new BooleanIDT(b);
+            case Character c -> new CharIDT(c);
+            default -> throw new IllegalStateException("Not a key: " + key);
+        };
+    }
+
+    /**
+     * Atomically add to the number stored under key (a missing key counts as 0).
+     * @return the new number
+     */
+    NumberIDT add(Object key, NumberIDT delta) {
+        InterpreterDataType sum = merge(key, delta.copy(), (old, add) -> {
+            if (!(old instanceof NumberIDT number)) {
+                throw new RuntimeException("Cannot add to " + old + ", it is not a number");
+            }
+            return NumberIDT.math(MathOpNode.MathOperations.add, number, (NumberIDT) add);
+        });
+        return ((NumberIDT) sum).copy();
+    }
+
+    @Override
+    public Iterator<InterpreterDataType> iterator() {
+        Iterator<Object> keys = keySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public InterpreterDataType next() {
+                return value(keys.next());
+            }
+        };
+    }
+}
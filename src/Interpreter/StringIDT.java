@@ -1,16 +1,88 @@
 package Interpreter;
 
+/**
+ * A Tran string. Strings never change, but "s = s + more" in a loop shouldn't copy s every time. So a string of some
+ * size that is added to is kept in a StringBuilder, and the string is the builder's first "length" characters. Adding
+ * to the string that ends where the builder ends (the last one made from it) just appends to the builder, and the new
+ * string is a longer prefix of the same builder - the old string still sees only its own characters. Adding to any
+ * other string copies it into a new builder. So building a string one piece at a time is amortized O(1) per piece.
+ *
+ * The String itself is only made (and then kept) when something needs it: printing, comparing, using it as a key.
+ */
 public class StringIDT implements InterpreterDataType {
-    public String Value;
+    //shorter results are just made as Strings
+    private static final int minimumBuilder = 64;
+
+    //null until needed, for a string in a builder
+    private String flat;
+    //shared by the strings made by adding to each other (null for a plain String)
+    private StringBuilder builder;
+    private int length;
+    //a literal's string, shared by every evaluation of it (never assigned to)
+    boolean constant;
 
     public StringIDT(String s) {
-        Value = s;
+        flat = s;
+        length = s.length();
+    }
+
+    private StringIDT(StringBuilder builder, int length) {
+        this.builder = builder;
+        this.length = length;
+    }
+
+    public String getValue() {
+        String value = flat;
+        if (value == null) {
+            //another thread may be appending to the builder
+            synchronized (builder) {
+                value = builder.substring(0, length);
+            }
+            flat = value;
+        }
+        return value;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    //another variable with the same string (sharing the builder is safe, it only ever grows past us)
+    StringIDT copy() {
+        StringIDT copy = new StringIDT(builder, length);
+        copy.flat = flat;
+        return copy;
+    }
+
+    /**
+     * @return this string followed by "right"
+     */
+    StringIDT concat(StringIDT right) {
+        String tail = right.getValue();
+        int total = length + tail.length();
+        if (total < minimumBuilder) {
+            return new StringIDT(getValue() + tail);
+        }
+        StringBuilder shared = builder;
+        if (shared != null) {
+            synchronized (shared) {
+                if (shared.length() == length) {
+                    shared.append(tail);
+                    return new StringIDT(shared, total);
+                }
+            }
+        }
+        StringBuilder fresh = new StringBuilder(Math.max(2 * total, minimumBuilder));
+        fresh.append(getValue()).append(tail);
+        return new StringIDT(fresh, total);
     }
 
     @Override
     public void Assign(InterpreterDataType in) {
         if (in instanceof StringIDT inv) {
-            Value = inv.Value;
+            flat = inv.flat;
+            builder = inv.builder;
+            length = inv.length;
         } else {
             throw new RuntimeException("Trying to assign to a string IDT from a " + in.getClass());
         }
@@ -18,6 +90,6 @@ public class StringIDT implements InterpreterDataType {
 
     @Override
     public String toString() {
-        return Value;
+        return getValue();
     }
 }
@@ -0,0 +1,56 @@
+package Interpreter;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+// The handle returned by an "async" method call. "join" waits for the call and gets its return values.
+public class TaskIDT implements InterpreterDataType {
+    public Future<List<InterpreterDataType>> future;
+
+    public TaskIDT() {
+    }
+
+    public TaskIDT(Future<List<InterpreterDataType>> future) {
+        this.future = future;
+    }
+
+    @Override
+    public void Assign(InterpreterDataType in) {
+        if (in instanceof TaskIDT inv) {
+            future = inv.future;
+        } else {
+            throw new RuntimeException("Trying to assign to a task IDT from a " + in.getClass());
+        }
+    }
+
+    /**
+     * Wait for the call to finish. Joining the same task again just returns the same values.
+     * If the call threw, the exception is rethrown here, on the joining thread.
+     * @return the return values of the method that was called
+     */
+    public List<InterpreterDataType> join() {
+        if (future == null) {
+            throw new RuntimeException("Trying to join a task that was never started");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while joining a task");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Async call failed", e.getCause());
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (future == null) {
+            return "<<<TASK NOT STARTED>>>";
+        }
+        return future.isDone() ? "<<<TASK DONE>>>" : "<<<TASK RUNNING>>>";
+    }
+}
@@ -0,0 +1,44 @@
+package Interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The async calls started by one method call. Each call runs on its own virtual thread.
+ * When the method that started them is finished, close() waits for any that are still running, so a task can never
+ * outlive the block that started it. If the method failed instead, cancel() interrupts the tasks and doesn't wait, so
+ * the method's own failure is reported straight away; a task stops at its next loop iteration or channel wait.
+ */
+class TaskScope {
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<List<InterpreterDataType>>> tasks = new ArrayList<>();
+
+    Future<List<InterpreterDataType>> fork(Callable<List<InterpreterDataType>> call) {
+        Future<List<InterpreterDataType>> task = threads.submit(call);
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Wait for every task. A task that failed is reported here even if nobody joined it.
+     */
+    void close() {
+        threads.close();
+        for (Future<List<InterpreterDataType>> task : tasks) {
+            if (task.state() == Future.State.FAILED) {
+                if (task.exceptionNow() instanceof RuntimeException failure) {
+                    throw failure;
+                }
+                throw new RuntimeException("Async call failed", task.exceptionNow());
+            }
+        }
+    }
+
+    void cancel() {
+        threads.shutdownNow();
+    }
+}
@@ -0,0 +1,324 @@
+package Interpreter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The native state behind Tran's list class: a growable array of values. While every value in the list is the same
+ * simple kind, the list keeps them in a primitive array - whole numbers in a long[], other numbers in a float[],
+ * characters in a char[], booleans in a boolean[] - so a list of a million numbers is one array, not a million IDTs.
+ * Adding a value the array can't hold exactly moves the list to a wider array: whole numbers move to the float[] if
+ * every one of them is a float exactly, and anything else moves everything to an array of IDTs.
+ *
+ * Values are copied in and out (objects are shared), like concurrentMap's. A list is not safe to change from several
+ * threads at once.
+ *
+ * Sorting and searching work on numbers, decimals, strings, characters and booleans (all of one kind). A long list is
+ * sorted in parallel.
+ */
+final class ValueList implements Iterable<InterpreterDataType> {
+    private enum Store {empty, wholes, floats, characters, booleans, values}
+
+    //shorter lists aren't worth sorting in parallel
+    private static final int parallelSortFrom = 1 << 13;
+    private static final int firstCapacity = 10;
+
+    private Store store = Store.empty;
+    //only the array for the store is used
+    private long[] wholes;
+    private float[] floats;
+    private char[] characters;
+    private boolean[] booleans;
+    private InterpreterDataType[] values;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    InterpreterDataType get(int index) {
+        checkIndex(index, size);
+        return at(index);
+    }
+
+    void set(int index, InterpreterDataType value) {
+        checkIndex(index, size);
+        makeRoomFor(value);
+        put(index, value);
+    }
+
+    void add(InterpreterDataType value) {
+        insert(size, value);
+    }
+
+    void insert(int index, InterpreterDataType value) {
+        checkIndex(index, size + 1);
+        makeRoomFor(value);
+        if (size == capacity()) {
+            resize(Math.max(firstCapacity, size + (size >> 1)));
+        }
+        Object array = array();
+        System.arraycopy(array, index, array, index + 1, size - index);
+        size++;
+        put(index, value);
+    }
+
+    /**
+     * @return the value that was removed
+     */
+    InterpreterDataType remove(int index) {
+        checkIndex(index, size);
+        InterpreterDataType removed = at(index);
+        Object array = array();
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        size--;
+        if (store == Store.values) {
+            values[size] = null;
+        }
+        return removed;
+    }
+
+    void sort() {
+        boolean parallel = size >= parallelSortFrom;
+        switch (store) {
+            case empty -> {}
+            case wholes -> {
+                if (parallel) {
+                    Arrays.parallelSort(wholes, 0, size);
+                } else {
+                    Arrays.sort(wholes, 0, size);
+                }
+            }
+            case floats -> {
+                if (parallel) {
+                    Arrays.parallelSort(floats, 0, size);
+                } else {
+                    Arrays.sort(floats, 0, size);
+                }
+            }
+            case characters -> {
+                if (parallel) {
+                    Arrays.parallelSort(characters, 0, size);
+                } else {
+                    Arrays.sort(characters, 0, size);
+                }
+            }
+            case booleans -> {
+                int falses = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!booleans[i]) {
+                        falses++;
+                    }
+                }
+                Arrays.fill(booleans, 0, falses, false);
+                Arrays.fill(booleans, falses, size, true);
+            }
+            case values -> {
+                Comparator<InterpreterDataType> order = ValueList::compare;
+                if (parallel) {
+                    Arrays.parallelSort(values, 0, size, order);
+                } else {
+                    Arrays.sort(values, 0, size, order);
+                }
+            }
+        }
+    }
+
+    /**
+     * Binary search of a sorted list.
+     * @return the index of value, or (if it isn't there) -(the index it would be inserted at) - 1
+     */
+    int search(InterpreterDataType value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int order = compareAt(middle, value);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compareAt(int index, InterpreterDataType value) {
+        return switch (store) {
+            case wholes -> value instanceof NumberIDT n && n.IsWhole ? Long.compare(wholes[index], n.Whole) : compare(at(index), value);
+            case floats -> value instanceof NumberIDT n ? Float.compare(floats[index], n.Value) : compare(at(index), value);
+            case characters -> value instanceof CharIDT c ? Character.compare(characters[index], c.Value) : compare(at(index), value);
+            default -> compare(at(index), value);
+        };
+    }
+
+    private static int compare(InterpreterDataType a, InterpreterDataType b) {
+        return switch (a) {
+            case NumberIDT x when b instanceof NumberIDT y -> x.IsWhole && y.IsWhole ? Long.compare(x.Whole, y.Whole) : Float.compare(x.Value, y.Value);
+            case DecimalIDT x when b instanceof DecimalIDT y -> DecimalIDT.compare(x, y);
+            case StringIDT x when b instanceof StringIDT y -> x.getValue().compareTo(y.getValue());
+            case CharIDT x when b instanceof CharIDT y -> Character.compare(x.Value, y.Value);
+            case BooleanIDT x when b instanceof BooleanIDT y -> Boolean.compare(x.Value, y.Value);
+            default -> throw new RuntimeException("Cannot compare " + a + " with " + b
+                    + " (only a list of numbers, decimals, strings, characters or booleans, all of one kind, can be sorted or searched)");
+        };
+    }
+
+    private static void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new RuntimeException("List index " + index + " is out of range (0 to " + (limit - 1) + ")");
+        }
+    }
+
+    //a new IDT (or a shared small number) for the value at index
+    private InterpreterDataType at(int index) {
+        return switch (store) {
+            case wholes -> NumberIDT.of(wholes[index]);
+            case floats -> new NumberIDT(floats[index]);
+            case characters -> new CharIDT(characters[index]);
+            case booleans -> BooleanIDT.of(booleans[index]);
+            case values -> Interpreter.snapshot(values[index]);
+            case empty -> throw new IllegalStateException("Empty list");
+        };
+    }
+
+    //the store must already hold the value's kind (see makeRoomFor)
+    private void put(int index, InterpreterDataType value) {
+        switch (store) {
+            case wholes -> wholes[index] = ((NumberIDT) value).Whole;
+            case floats -> floats[index] = ((NumberIDT) value).Value;
+            case characters -> characters[index] = ((CharIDT) value).Value;
+            case booleans -> booleans[index] = ((BooleanIDT) value).Value;
+            case values -> values[index] = Interpreter.snapshot(value);
+            case empty -> throw new IllegalStateException("Empty list");
+        }
+    }
+
+    private static Store storeFor(InterpreterDataType value) {
+        return switch (value) {
+            case NumberIDT n -> n.IsWhole ? Store.wholes : Store.floats;
+            case CharIDT ignored -> Store.characters;
+            case BooleanIDT ignored -> Store.booleans;
+            default -> Store.values;
+        };
+    }
+
+    //make sure the store can hold value exactly, moving to a wider one if it can't
+    private void makeRoomFor(InterpreterDataType value) {
+        Store needed = storeFor(value);
+        if (needed == store || store == Store.values) {
+            return;
+        }
+        if (store == Store.empty) {
+            store = needed;
+            resize(firstCapacity);
+            return;
+        }
+        if (store == Store.floats && value instanceof NumberIDT n && isFloat(n.Whole)) {
+            return;
+        }
+        if (store == Store.wholes && needed == Store.floats && allFloats()) {
+            float[] converted = new float[wholes.length];
+            for (int i = 0; i < size; i++) {
+                converted[i] = wholes[i];
+            }
+            wholes = null;
+            floats = converted;
+            store = Store.floats;
+            return;
+        }
+        InterpreterDataType[] converted = new InterpreterDataType[capacity()];
+        for (int i = 0; i < size; i++) {
+            converted[i] = at(i);
+        }
+        wholes = null;
+        floats = null;
+        characters = null;
+        booleans = null;
+        values = converted;
+        store = Store.values;
+    }
+
+    private boolean allFloats() {
+        for (int i = 0; i < size; i++) {
+            if (!isFloat(wholes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //does a float hold this whole number exactly?
+    private static boolean isFloat(long whole) {
+        return (long) (float) whole == whole && Math.abs(whole) < 1L << 62;
+    }
+
+    private Object array() {
+        return switch (store) {
+            case wholes -> wholes;
+            case floats -> floats;
+            case characters -> characters;
+            case booleans -> booleans;
+            case values -> values;
+            case empty -> throw new IllegalStateException("Empty list");
+        };
+    }
+
+    private int capacity() {
+        return switch (store) {
+            case wholes -> wholes.length;
+            case floats -> floats.length;
+            case characters -> characters.length;
+            case booleans -> booleans.length;
+            case values -> values.length;
+            case empty -> 0;
+        };
+    }
+
+    private void resize(int capacity) {
+        switch (store) {
+            case wholes -> wholes = wholes == null ? new long[capacity] : Arrays.copyOf(wholes, capacity);
+            case floats -> floats = floats == null ? new float[capacity] : Arrays.copyOf(floats, capacity);
+            case characters -> characters = characters == null ? new char[capacity] : Arrays.copyOf(characters, capacity);
+            case booleans -> booleans = booleans == null ? new boolean[capacity] : Arrays.copyOf(booleans, capacity);
+            case values -> values = values == null ? new InterpreterDataType[capacity] : Arrays.copyOf(values, capacity);
+            case empty -> {}
+        }
+    }
+
+    /**
+     * Each value in order. The list is read as the loop goes, so values the body adds at the end are seen too.
+     */
+    @Override
+    public Iterator<InterpreterDataType> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public InterpreterDataType next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return at(index++);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            out.append(i == 0 ? "" : ", ").append(at(i));
+        }
+        return out.append("]").toString();
+    }
+}
@@ -1,10 +1,17 @@
+import AST.BooleanOpNode;
 import AST.BuiltInMethodDeclarationNode;
+import AST.CountedLoopNode;
+import AST.IfNode;
+import AST.MatchNode;
 import AST.TranNode;
+import Interpreter.BooleanIDT;
 import Interpreter.Interpreter;
+import Interpreter.NumberIDT;
 import Interpreter.ConsoleWrite;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
 
 public class InterpreterTests {
@@ -165,6 +172,1270 @@ public class InterpreterTests {
         Assertions.assertEquals("bart simpson 30.0",c.getLast());
     }
 
+    @Test
+    public void asyncJoin() {
+        String program = """
+                class Worker
+                    shared square(number n) : number result, string label
+                        result = n * n
+                        label = "sq"
+                    shared start()
+                        task a
+                        task b
+                        number x
+                        number y
+                        string s
+                        a = async Worker.square(3)
+                        b = async Worker.square(4)
+                        x, s = join a
+                        y = join b
+                        console.write(s, x + y)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("sq25.0",c.getFirst());
+    }
+
+    @Test
+    public void asyncTasksFinishWithTheirMethod() {
+        String program = """
+                class Worker
+                    shared say(string s)
+                        console.write(s)
+                    shared fanOut()
+                        task a
+                        task b
+                        a = async Worker.say("one")
+                        b = async Worker.say("two")
+                    shared start()
+                        Worker.fanOut()
+                        console.write("done")
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(3,c.size());
+        Assertions.assertEquals("done",c.getLast());
+    }
+
+    @Test
+    public void failingMethodCancelsBlockedAsyncCalls() {
+        String program = """
+                class Waiter
+                    shared wait(channel ch) : number x
+                        x = ch.receive()
+                    shared spin()
+                        number n
+                        loop n < 1
+                            n = n * 1
+                        n = n + 0
+                    shared start()
+                        channel ch
+                        list empty
+                        task waiting
+                        task spinning
+                        ch = new channel()
+                        empty = new list()
+                        waiting = async Waiter.wait(ch)
+                        spinning = async Waiter.spin()
+                        console.write(empty.get(5))
+                """;
+        //the tasks are cancelled instead of waited for, so this fails with start's own error
+        var e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> Assertions.assertThrows(RuntimeException.class, () -> run(program)));
+        Assertions.assertTrue(e.getMessage().contains("List index 5 is out of range"), e.getMessage());
+    }
+
+    @Test
+    public void parallelLoopReductions() {
+        String program = """
+                class Sweep
+                    shared square(number n) : number result
+                        result = n * n
+                    shared start()
+                        number i
+                        number total
+                        number smallest
+                        number largest
+                        number evens
+                        number sq
+                        total = 1
+                        parallel loop i = 0 until 100 reduce sum total, min smallest, max largest, count evens
+                            sq = Sweep.square(i)
+                            if sq < smallest
+                                smallest = sq
+                            if sq > largest
+                                largest = sq
+                            if i % 2 == 0
+                                evens = evens + 1
+                            total = total + sq
+                        console.write(total, " ", smallest, " ", largest, " ", evens)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("328351.0 0.0 9801.0 50.0",c.getFirst());
+    }
+
+    @Test
+    public void parallelLoopRejectsSharedWrites() {
+        String program = """
+                class Sweep
+                    number total
+                    run()
+                        number i
+                        parallel loop i = 0 until 10
+                            total = total + i
+                        console.write(total)
+                    shared start()
+                        console.write("never runs")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("writes to member total"), e.getMessage());
+    }
+
+    @Test
+    public void channelPipeline() {
+        String program = """
+                class Pipeline
+                    shared produce(channel ch, number n)
+                        number i
+                        i = 1
+                        loop i <= n
+                            ch.send(i)
+                            i = i + 1
+                        ch.close()
+                    shared start()
+                        channel ch
+                        task producer
+                        number x
+                        number total
+                        ch = new channel(2)
+                        producer = async Pipeline.produce(ch, 5)
+                        loop x = ch
+                            total = total + x
+                        console.write(total)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("15.0",c.getFirst());
+    }
+
+    @Test
+    public void channelTrySendAndTryReceive() {
+        String program = """
+                class Mailbox
+                    shared start()
+                        channel ch
+                        boolean sent
+                        boolean full
+                        boolean got
+                        boolean empty
+                        number x
+                        ch = new channel(1)
+                        sent = ch.trySend(7)
+                        full = ch.trySend(8)
+                        got, x = ch.tryReceive()
+                        empty, x = ch.tryReceive()
+                        console.write(sent, " ", full, " ", got, " ", x, " ", empty)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("true false true 7.0 false",c.getFirst());
+    }
+
+    @Test
+    public void actorRunsMessagesInOrder() {
+        String program = """
+                class Counter
+                    number count
+                    construct()
+                        count = 0
+                    add(number n)
+                        count = count + n
+                    double()
+                        count = count * 2
+                    total() : number result
+                        result = count
+                    shared start()
+                        Counter counter
+                        actor a
+                        task t
+                        number n
+                        counter = new Counter()
+                        a = new actor(counter)
+                        a.send("add", 2)
+                        a.send("double")
+                        a.send("add", 3)
+                        t = a.ask("total")
+                        n = join t
+                        a.stop()
+                        console.write(n)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("7.0",c.getFirst());
+    }
+
+    @Test
+    public void sharedCountersInParallelLoop() {
+        String program = """
+                class Metrics
+                    shared start()
+                        number i
+                        counter hits
+                        atomicNumber total
+                        concurrentMap buckets
+                        hits = new counter()
+                        total = new atomicNumber()
+                        buckets = new concurrentMap()
+                        parallel loop i = 0 until 1000
+                            hits.increment()
+                            total.add(i)
+                            buckets.add(i % 3, 1)
+                        console.write(hits.sum(), " ", total.get(), " ", buckets.get(0), " ", buckets.get(2), " ", buckets.size())
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("1000.0 499500.0 334.0 333.0 3.0",c.getFirst());
+    }
+
+    @Test
+    public void atomicReferenceAndConcurrentMap() {
+        String program = """
+                class Registry
+                    shared start()
+                        atomicReference owner
+                        concurrentMap names
+                        boolean first
+                        boolean second
+                        boolean added
+                        string key
+                        number count
+                        owner = new atomicReference("nobody")
+                        first = owner.compareAndSet("nobody", "alice")
+                        second = owner.compareAndSet("nobody", "bob")
+                        names = new concurrentMap()
+                        names.put("alice", 1)
+                        added = names.putIfAbsent("alice", 2)
+                        names.put("bob", names.getOrDefault("carol", 5))
+                        loop key = names
+                            count = count + names.get(key)
+                        console.write(owner.get(), " ", first, " ", second, " ", added, " ", count, " ", names.containsKey("carol"))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("alice true false false 6.0 false",c.getFirst());
+    }
+
+    @Test
+    public void lists() {
+        String program = """
+                class Lists
+                    shared start()
+                        list numbers
+                        list words
+                        number i
+                        number n
+                        number total
+                        number removed
+                        number at
+                        boolean found
+                        string word
+                        numbers = new list()
+                        loop i = 0 until 10
+                            numbers.add(10 - i)
+                        numbers.insert(0, 2.5)
+                        removed = numbers.remove(1)
+                        numbers.set(0, numbers.get(0) * 2)
+                        numbers.sort()
+                        loop n = numbers
+                            total = total + n
+                        found, at = numbers.search(5)
+                        console.write(numbers, " ", numbers.size(), " ", total, " ", removed, " ", found, " ", at)
+                        found, at = numbers.search(5.5)
+                        console.write(found, " ", at)
+                        words = new list()
+                        words.add("pear")
+                        words.add("apple")
+                        words.add("fig")
+                        words.sort()
+                        loop word = words
+                            console.write(word)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(5,c.size());
+        Assertions.assertEquals("[1.0, 2.0, 3.0, 4.0, 5.0, 5.0, 6.0, 7.0, 8.0, 9.0] 10.0 50.0 10.0 true 4.0",c.get(0));
+        Assertions.assertEquals("false 6.0",c.get(1));
+        Assertions.assertEquals("apple",c.get(2));
+        Assertions.assertEquals("pear",c.get(4));
+    }
+
+    @Test
+    public void parallelLoopCantChangeAList() {
+        String program = """
+                class Sweep
+                    shared collect(list xs, number i)
+                        xs.add(i)
+                    shared start()
+                        list xs
+                        number i
+                        xs = new list()
+                        parallel loop i = 0 until 1000
+                            Sweep.collect(xs, i)
+                        console.write("never runs")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("calls collect(), which calls add(), which changes the list"), e.getMessage());
+    }
+
+    @Test
+    public void mapsAndSets() {
+        String program = """
+                class Node
+                    number id
+                    construct()
+                        id = 1
+                    shared start()
+                        map squares
+                        map names
+                        set seen
+                        number i
+                        number key
+                        number total
+                        number added
+                        Node a
+                        Node b
+                        squares = new map()
+                        loop i = 0 until 1000
+                            squares.put(i, i * i)
+                        loop i = 0 until 1000 by 2
+                            squares.remove(i)
+                        loop key = squares
+                            total = total + squares.get(key)
+                        squares.put(2.5, 6.25)
+                        seen = new set()
+                        loop i = 0 until 100
+                            if seen.add(i % 7)
+                                added = added + 1
+                            total = total + 0
+                        a = new Node()
+                        b = new Node()
+                        names = new map()
+                        names.put(a, "a")
+                        names.put("b", "letter")
+                        console.write(squares.size(), " ", total, " ", squares.get(999), " ", squares.get(2.5), " ", squares.containsKey(4))
+                        console.write(seen.size(), " ", added, " ", seen.contains(6), " ", seen.remove(6), " ", seen.contains(6))
+                        console.write(names.get(a), " ", names.containsKey(b), " ", names.getOrDefault(b, "none"), " ", names.get("b"))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(3,c.size());
+        Assertions.assertEquals("501.0 1.666665E8 998001.0 6.25 false",c.get(0));
+        Assertions.assertEquals("7.0 7.0 true true false",c.get(1));
+        Assertions.assertEquals("a false none letter",c.get(2));
+    }
+
+    @Test
+    public void mapsCompareHashableKeys() {
+        String program = """
+                class Point implements hashable
+                    number x
+                        accessor:
+                            value = x
+                    number y
+                        accessor:
+                            value = y
+                    construct(number a, number b)
+                        x = a
+                        y = b
+                    hash() : number h
+                        h = x * 31 + y
+                    equals(Point other) : boolean same
+                        number ox
+                        number oy
+                        ox = other.x()
+                        oy = other.y()
+                        if x == ox && y == oy
+                            same = true
+                        ox = 0
+                    shared start()
+                        map names
+                        set seen
+                        Point a
+                        Point b
+                        Point c
+                        a = new Point(1, 2)
+                        b = new Point(1, 2)
+                        c = new Point(2, 1)
+                        names = new map()
+                        names.put(a, "first")
+                        names.put(b, "second")
+                        seen = new set()
+                        seen.add(a)
+                        console.write(names.size(), " ", names.get(a), " ", names.containsKey(c), " ", seen.contains(b), " ", seen.add(b))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("1.0 second false true false",c.getFirst());
+    }
+
+    @Test
+    public void parallelLoopCantChangeAMap() {
+        String program = """
+                class Sweep
+                    shared start()
+                        map squares
+                        number i
+                        number n
+                        squares = new map()
+                        squares.put(3, 9)
+                        parallel loop i = 0 until 1000 reduce sum n
+                            n = n + squares.getOrDefault(i, 0)
+                        parallel loop i = 0 until 1000
+                            squares.put(i, i * i)
+                        console.write("never runs")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("calls put(), which changes the map"), e.getMessage());
+    }
+
+    @Test
+    public void numberArrays() {
+        String program = """
+                class Signal
+                    shared start()
+                        numberArray samples
+                        numberArray middle
+                        numberArray copied
+                        number i
+                        number x
+                        number total
+                        samples = new numberArray(2000000)
+                        samples.fill(1)
+                        loop i = 0 until 10
+                            samples.set(i * 200000, i)
+                        middle = samples.slice(1000000, 1000010)
+                        middle.set(0, 0.5)
+                        copied = middle.copy()
+                        copied.set(1, 100)
+                        loop x = middle
+                            total = total + x
+                        console.write(samples.size(), " ", samples.get(1000000), " ", middle.size(), " ", total, " ", samples.get(1000001))
+                        console.write(samples.sum(), " ", middle.max(), " ", copied.max(), " ", samples.min(), " ", middle.dot(copied))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(2,c.size());
+        Assertions.assertEquals("2000000.0 0.5 10.0 9.5 1.0",c.get(0));
+        Assertions.assertEquals("2000030.5 1.0 100.0 0.0 108.25",c.get(1));
+    }
+
+    @Test
+    public void numberArrayTotalsOfWholeNumbersAreExact() {
+        String program = """
+                class Totals
+                    shared start()
+                        numberArray a
+                        numberArray ones
+                        a = new numberArray(2)
+                        a.set(0, 16777216)
+                        a.set(1, 1)
+                        ones = new numberArray(2)
+                        ones.fill(1)
+                        console.write(a.sum(), " ", a.dot(ones), " ", ones.sum() / 4)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(List.of("1.6777217E7 1.6777217E7 0.5"), c);
+    }
+
+    @Test
+    public void elementWiseLoopsRunAsKernels() {
+        String program = """
+                class Signal
+                    shared start()
+                        numberArray a
+                        numberArray b
+                        numberArray fast
+                        numberArray slow
+                        numberArray shifted
+                        numberArray s
+                        number i
+                        number k
+                        number x
+                        a = new numberArray(3000)
+                        b = new numberArray(3000)
+                        fast = new numberArray(3000)
+                        slow = new numberArray(3000)
+                        loop i = 0 until 3000
+                            a.set(i, i * 1.5)
+                        b.fill(2)
+                        a.set(2500, 4097)
+                        b.set(2500, 4097)
+                        k = 0.25
+                        loop i = 0 until 3000
+                            fast.set(i, a.get(i) * b.get(i) + 1 - k % 0.5)
+                        loop i = 0 until 3000
+                            x = a.get(i) * b.get(i) + 1 - k % 0.5
+                            slow.set(i, x)
+                        s = new numberArray(100)
+                        shifted = s.slice(1, 100)
+                        loop i = 0 until 99
+                            shifted.set(i, s.get(i) + 1)
+                        console.write(fast.get(2), " ", fast.get(2500), " ", fast.sum(), " ", slow.sum(), " ", i, " ", s.get(99))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("6.75 1.678541E7 3.027566E7 3.027566E7 99.0 99.0",c.getFirst());
+        var statements = tranNode.Classes.getFirst().methods.getFirst().statements;
+        Assertions.assertNotNull(((CountedLoopNode) statements.get(9)).kernel);
+        Assertions.assertNull(((CountedLoopNode) statements.get(10)).kernel);
+    }
+
+    @Test
+    public void membersAndLocalsWithTheSameName() {
+        String program = """
+                class Point
+                    number x
+                    number y
+                    construct(number startX)
+                        x = startX
+                        y = x * 2
+                    shifted() : number result
+                        number x
+                        x = 100
+                        result = x + y
+                    shared start()
+                        Point p
+                        Point q
+                        number r
+                        p = new Point(3)
+                        q = p
+                        r = q.shifted()
+                        console.write(r, " ", p)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("106.0 x : 3.0\ny : 6.0\n",c.getFirst());
+    }
+
+    @Test
+    public void objectArenaStoresMembersByHandle() {
+        String program = """
+                class Reading
+                    number value
+                    boolean valid
+                    character unit
+                    construct(number v)
+                        value = v
+                        valid = true
+                    shared start()
+                        objectArena readings
+                        Reading r
+                        Reading copy
+                        number i
+                        number h
+                        number total
+                        readings = new objectArena("Reading")
+                        i = 0
+                        loop i < 5
+                            r = new Reading(i * 10)
+                            h = readings.add(r)
+                            i = i + 1
+                        readings.set(1, "value", 15)
+                        readings.remove(0)
+                        loop h = readings
+                            total = total + readings.get(h, "value")
+                        copy = new Reading(0)
+                        readings.load(4, copy)
+                        console.write(readings.size(), " ", total, " ", readings.get(2, "valid"), " ", copy)
+                        readings.close()
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("4.0 105.0 true value : 40.0\nvalid : true\nunit :  \n",c.getFirst());
+    }
+
+    @Test
+    public void objectArenaKeepsWholeNumbersExact() {
+        String program = """
+                class Reading
+                    number value
+                    number scale
+                    boolean valid
+                    construct(number v)
+                        value = v
+                        scale = 2.5
+                    shared start()
+                        objectArena readings
+                        Reading copy
+                        number h
+                        readings = new objectArena("Reading")
+                        h = readings.add(new Reading(16777217))
+                        readings.set(h, "value", readings.get(h, "value") + 123456789)
+                        copy = new Reading(0)
+                        readings.load(h, copy)
+                        console.write(readings.get(h, "value") - 140234006, " ", copy)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("0.0 value : 1.40234006E8\nscale : 2.5\nvalid : false\n",c.getFirst());
+    }
+
+    @Test
+    public void objectArenaRejectsObjectMembers() {
+        String program = """
+                class Holder
+                    string name
+                    shared start()
+                        objectArena holders
+                        holders = new objectArena("Holder")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("Holder.name is a string"), e.getMessage());
+    }
+
+    @Test
+    public void objectArenaCannotBeUsedAfterClose() {
+        String program = """
+                class Point
+                    number x
+                    construct()
+                        x = 1
+                    shared start()
+                        objectArena points
+                        number h
+                        points = new objectArena("Point")
+                        points.close()
+                        h = points.add(new Point())
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("objectArena for Point is closed"), e.getMessage());
+    }
+
+    @Test
+    public void objectVariablesAreReferences() {
+        String program = """
+                class Box
+                    number value
+                    construct(number v)
+                        value = v
+                    bump()
+                        value = value + 1
+                    get() : number result
+                        result = value
+                    shared start()
+                        Box a
+                        Box b
+                        Box c
+                        a = new Box(1)
+                        b = a
+                        b.bump()
+                        c = new Box(10)
+                        b = c
+                        b.bump()
+                        console.write(a.get(), " ", c.get())
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("2.0 11.0",c.getFirst());
+    }
+
+    @Test
+    public void objectReferencesCheckTheirType() {
+        String program = """
+                class Pipeline
+                    number stages
+                class Box
+                    construct()
+                        console.write("box")
+                    shared start()
+                        Pipeline p
+                        p = new Box()
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("Cannot assign an object of type Box to Pipeline"), e.getMessage());
+    }
+
+    @Test
+    public void objectMembersStartNull() {
+        String program = """
+                class Node
+                    number value
+                    Node next
+                    construct(number v)
+                        value = v
+                    sum() : number total
+                        total = value + next.sum()
+                    shared start()
+                        Node n
+                        n = new Node(1)
+                        n.sum()
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("Cannot call sum() on next, it is null"), e.getMessage());
+    }
+
+    @Test
+    public void newPicksConstructorByParameterTypes() {
+        String program = """
+                class Cell
+                    number n
+                    string label
+                    boolean set
+                    construct(number v)
+                        n = v
+                        set = true
+                    construct(string s)
+                        label = s
+                    construct(number v, string s)
+                        n = v
+                        label = s
+                    shared start()
+                        Cell c
+                        number total
+                        number i
+                        loop i < 100
+                            c = new Cell(i)
+                            total = total + c.get()
+                            i = i + 1
+                        c = new Cell("x")
+                        console.write(total, " ", c.get(), " ", c.isSet())
+                        c = new Cell(2, "y")
+                        console.write(c.get(), c.isSet())
+                    get() : number result
+                        result = n
+                    isSet() : boolean result
+                        result = set
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(2,c.size());
+        Assertions.assertEquals("4950.0 0.0 false",c.getFirst());
+        Assertions.assertEquals("2.0false",c.get(1));
+    }
+
+    @Test
+    public void unknownMemberTypeIsFoundBeforeRunning() {
+        String program = """
+                class Holder
+                    Missing m
+                    shared start()
+                        console.write("ran")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("Unknown type: Missing"), e.getMessage());
+    }
+
+    @Test
+    public void accessorsAndMutators() {
+        String program = """
+                class Account
+                    number limit
+                        accessor:
+                            value = limit * 2
+                        mutator:
+                            if value > 100
+                                limit = 100
+                            else
+                                limit = value
+                            limit = limit + 0
+                    number balance
+                        accessor:
+                            value = balance
+                        mutator:
+                            balance = value
+                    construct()
+                        balance = 0
+                    shared start()
+                        Account a
+                        number b
+                        a = new Account()
+                        a.balance(40)
+                        b = a.balance()
+                        b = b + 1
+                        a.limit(500)
+                        console.write(a.balance(), " ", b, " ", a.limit())
+                        a.limit(7)
+                        console.write(a.limit())
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(2,c.size());
+        Assertions.assertEquals("40.0 41.0 200.0",c.getFirst());
+        Assertions.assertEquals("14.0",c.get(1));
+        var account = tranNode.Classes.stream().filter(k -> k.name.equals("Account")).findFirst().orElseThrow();
+        for (var m : account.methods) {
+            if (m.name.equals("balance")) {
+                Assertions.assertTrue(m.accessorSlot >= 0 || m.mutatorSlot >= 0, m.toString());
+            }
+            if (m.name.equals("limit")) {
+                Assertions.assertTrue(m.accessorSlot < 0 && m.mutatorSlot < 0, m.toString());
+            }
+        }
+    }
+
+    @Test
+    public void interfaceCallsAndIterators() {
+        String program = """
+                interface Sized
+                    size() : number n
+                class Countdown implements Sized, iterator
+                    number left
+                    construct(number from)
+                        left = from
+                    size() : number n
+                        n = left
+                    getNext() : boolean more, number value
+                        value = left
+                        if left > 0
+                            more = true
+                        left = left - 1
+                    shared start()
+                        Sized s
+                        Countdown c
+                        number total
+                        number v
+                        c = new Countdown(4)
+                        s = c
+                        console.write(s.size())
+                        loop v = c
+                            total = total + v
+                        console.write(total, " ", s.size())
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(2,c.size());
+        Assertions.assertEquals("4.0",c.getFirst());
+        Assertions.assertEquals("10.0 -1.0",c.get(1));
+    }
+
+    @Test
+    public void expressionCallsUseTheItable() throws Exception {
+        String program = """
+                interface Shape
+                    area() : number a
+                    sides() : number n
+                class Square implements Shape
+                    number side
+                    construct(number s)
+                        side = s
+                    area() : number a
+                        a = side * side
+                    sides() : number n
+                        n = 4
+                    shared start()
+                        Shape s
+                        number x
+                        s = new Square(3)
+                        x = s.area()
+                        console.write(x, " ", s.area() + 1)
+                """;
+        var tranNode = new TranNode();
+        new Parser(tranNode, new Lexer(program).Lex()).Tran();
+        var interpreter = new Interpreter(tranNode);
+        //point Shape's area() slot at sides(): a call that goes through the itable now gets 4
+        var square = tranNode.Classes.stream().filter(k -> k.name.equals("Square")).findFirst().orElseThrow();
+        var sides = square.methods.stream().filter(m -> m.name.equals("sides")).findFirst().orElseThrow();
+        for (var itable : square.itables) {
+            for (int slot = 0; itable != null && slot < itable.length; slot++) {
+                if (itable[slot].name.equals("area")) {
+                    itable[slot] = sides;
+                }
+            }
+        }
+        interpreter.start();
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(List.of("4.0 5.0"), c);
+    }
+
+    @Test
+    public void missingInterfaceMethodIsFoundBeforeRunning() {
+        String program = """
+                interface Sized
+                    size() : number n
+                class Box implements Sized
+                    size() : string n
+                        n = "big"
+                    shared start()
+                        console.write("ran")
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("Class Box doesn't implement size() : number of interface Sized"), e.getMessage());
+    }
+
+    @Test
+    public void rangesAndStringsLoopNatively() {
+        String program = """
+                class Ranges
+                    shared start()
+                        range r
+                        number x
+                        number total
+                        number down
+                        character c
+                        number count
+                        r = new range(1, 5)
+                        loop x = r
+                            total = total + x
+                        loop x = new range(10, 0, 0 - 2.5)
+                            down = down + x
+                        loop c = "abc"
+                            count = count + 1
+                        console.write(total, " ", down, " ", r.size(), " ", count, c)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("10.0 25.0 4.0 3.0c",c.getFirst());
+    }
+
+    @Test
+    public void rangesCountersAndAtomicsStayExact() {
+        String program = """
+                class Big
+                    shared start()
+                        number x
+                        counter hits
+                        atomicNumber n
+                        boolean swapped
+                        loop x = new range(16777216, 16777220)
+                            console.write(x)
+                        hits = new counter()
+                        hits.add(16777217)
+                        hits.increment()
+                        hits.add(0.5)
+                        hits.add(0.5)
+                        n = new atomicNumber(16777216)
+                        n.add(1)
+                        swapped = n.compareAndSet(16777216, 5)
+                        console.write(hits.sum(), " ", n.get(), " ", swapped, " ", n.add(2))
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(List.of("1.6777216E7", "1.6777217E7", "1.6777218E7", "1.6777219E7", "1.6777219E7 1.6777217E7 false 1.6777219E7"), c);
+    }
+
+    @Test
+    public void countedLoops() {
+        String program = """
+                class Counting
+                    shared start()
+                        number i
+                        number j
+                        number total
+                        number down
+                        number rows
+                        loop i = 0 until 10
+                            loop j = i until 10 by 2
+                                total = total + 1
+                            rows = rows + 1
+                        loop j = 5 until 0 by 0 - 1
+                            down = down + j
+                        console.write(total, " ", rows, " ", down, " ", i, " ", j)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("30.0 10.0 15.0 10.0 0.0",c.getFirst());
+    }
+
+    @Test
+    public void matchStatements() {
+        String program = """
+                class Matching
+                    shared start()
+                        number i
+                        number small
+                        number big
+                        number other
+                        string word
+                        string words
+                        loop i = 0 until 10
+                            match i
+                                case 1, 2, 3
+                                    small = small + 1
+                                case 8, 1000
+                                    big = big + 1
+                                else
+                                    other = other + 1
+                            other = other + 0
+                        loop i = 0 until 4
+                            if i == 0
+                                word = "tea"
+                            else
+                                word = "cake"
+                            match word
+                                case "cake"
+                                    words = words + "C"
+                                case "tea"
+                                    words = words + "T"
+                            words = words + ""
+                        console.write(small, " ", big, " ", other, " ", words)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("3.0 1.0 6.0 TCCC",c.getFirst());
+    }
+
+    @Test
+    public void ifChainsBecomeMatches() {
+        String program = """
+                class Names
+                    shared start()
+                        number i
+                        string all
+                        string one
+                        loop i = 0 until 5
+                            one = Names.name(i)
+                            all = all + one
+                        console.write(all)
+                    shared name(number code) : string name
+                        if code == 1
+                            name = "a"
+                        else
+                            if 2 == code
+                                name = "b"
+                            else
+                                if code == 1
+                                    name = "never"
+                                else
+                                    if code == 4
+                                        name = "d"
+                                    else
+                                        name = "-"
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("-ab-d",c.getFirst());
+        var match = (MatchNode) tranNode.Classes.getFirst().methods.get(1).statements.getFirst();
+        Assertions.assertEquals(3, match.cases.size());
+        Assertions.assertNotNull(match.denseTable);
+    }
+
+    @Test
+    public void conditionsShortCircuitAndReorder() {
+        String program = """
+                class Conditions
+                    shared noisy() : number one
+                        console.write("called")
+                        one = 1
+                    shared start()
+                        number i
+                        number hits
+                        boolean b
+                        b = false
+                        if i > 0 && Conditions.noisy() > 0
+                            hits = 100
+                        hits = hits + 1
+                        loop i = 0 until 3000
+                            if i > 5 && i < 10
+                                hits = hits + 1
+                            hits = hits + 0
+                        if i > 5 || Conditions.noisy() > 0
+                            b = true
+                        console.write(hits, " ", b)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("5.0 true",c.getFirst());
+        //i < 10 is false far more often, so it was moved first
+        var loop = (CountedLoopNode) tranNode.Classes.getFirst().methods.get(1).statements.get(3);
+        var condition = (BooleanOpNode) ((IfNode) loop.statements.getFirst()).condition;
+        Assertions.assertTrue(condition.reorderable);
+        Assertions.assertTrue(condition.rightFirst);
+    }
+
+    @Test
+    public void wholeNumbersStayExact() {
+        String program = """
+                class Numbers
+                    shared start()
+                        number big
+                        number i
+                        number digit
+                        number half
+                        number quarter
+                        number one
+                        number huge
+                        number hits
+                        big = 16777216
+                        loop i = 0 until 6
+                            big = big + 1
+                        digit = big % 10
+                        if big == 16777222
+                            hits = hits + 1
+                        if big > 16777221
+                            hits = hits + 1
+                        half = 7 / 2
+                        quarter = 8 / 2
+                        one = 0.5 + 0.5
+                        huge = 9223372036854775807 * 2
+                        console.write(big, " ", digit, " ", half, " ", quarter, " ", one, " ", huge, " ", hits)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("1.6777222E7 2.0 3.5 4.0 1.0 1.8446744E19 2.0",c.getFirst());
+    }
+
+    @Test
+    public void decimals() {
+        String program = """
+                class Billing
+                    shared withTax(decimal amount) : decimal taxed
+                        taxed = amount * 1.08
+                    shared start()
+                        decimal total
+                        decimal price
+                        decimal third
+                        decimal big
+                        decimal taxed
+                        number i
+                        number hits
+                        price = 0.1
+                        loop i = 0 until 10
+                            total = total + price
+                        if total == 1
+                            hits = hits + 1
+                        if total < 1.01
+                            hits = hits + 1
+                        decimals.divideWith(2, "halfUp")
+                        third = total / 3
+                        big = "92233720368547758.07"
+                        big = big * 1000
+                        taxed = Billing.withTax(third)
+                        console.write(total, " ", third, " ", big, " ", taxed, " ", hits)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("1.0 0.33 92233720368547758070.00 0.3564 2.0",c.getFirst());
+    }
+
+    @Test
+    public void appendingToStrings() {
+        String program = """
+                class Report
+                    shared start()
+                        string a
+                        string b
+                        string c
+                        number i
+                        loop i = 0 until 1000
+                            a = a + "x"
+                        b = a
+                        c = a
+                        a = a + "y"
+                        b = b + "z"
+                        c = c + "y"
+                        console.write(a)
+                        console.write(b)
+                        console.write(c)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(3,c.size());
+        Assertions.assertEquals("x".repeat(1000) + "y",c.get(0));
+        Assertions.assertEquals("x".repeat(1000) + "z",c.get(1));
+        Assertions.assertEquals("x".repeat(1000) + "y",c.get(2));
+    }
+
+    @Test
+    public void literalsAreSharedConstants() {
+        String program = """
+                class Constants
+                    shared bump(number n, string s, boolean b) : number out
+                        n = n + 1
+                        s = s + "!"
+                        b = false
+                        out = n
+                    shared start()
+                        number i
+                        number total
+                        number five
+                        string word
+                        boolean yes
+                        loop i = 0 until 3
+                            total = total + Constants.bump(5, "hi", true)
+                        five = 5
+                        word = "hi"
+                        yes = true
+                        console.write(total, " ", five, " ", word, " ", yes, " ", 2 + 3)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("18.0 5.0 hi true 5.0",c.getFirst());
+        Assertions.assertSame(NumberIDT.of(5), NumberIDT.of(2 + 3));
+        Assertions.assertSame(BooleanIDT.TRUE, BooleanIDT.of(true));
+    }
+
+    @Test
+    public void breakAndReturn() {
+        String program = """
+                class Search
+                    shared find(number target) : number found
+                        number i
+                        found = 0 - 1
+                        loop i = 0 until 100
+                            if i * i == target
+                                found = i
+                                return
+                            i = i + 0
+                        found = 0 - 2
+                    shared start()
+                        number i
+                        number a
+                        number b
+                        number n
+                        loop i = 0 until 1000
+                            if i == 7
+                                break
+                            n = n + 1
+                        a = Search.find(49)
+                        b = Search.find(50)
+                        loop n < 100
+                            n = n + 10
+                            if n > 30
+                                break
+                            n = n + 0
+                        console.write(i, " ", a, " ", b, " ", n)
+                """;
+        var tranNode = run(program);
+        var c = getConsole(tranNode);
+        Assertions.assertEquals(1,c.size());
+        Assertions.assertEquals("7.0 7.0 -2.0 37.0",c.getFirst());
+    }
+
+    @Test
+    public void breakOutsideALoopIsFoundBeforeRunning() {
+        String program = """
+                class Bad
+                    shared start()
+                        console.write("ran")
+                        break
+                """;
+        var e = Assertions.assertThrows(RuntimeException.class, () -> run(program));
+        Assertions.assertTrue(e.getMessage().contains("break outside of a loop in class Bad"), e.getMessage());
+    }
+
     private static List<String> getConsole(TranNode tn) {
         for (var c : tn.Classes)
             if (c.name.equals("console")) {
@@ -0,0 +1,87 @@
+import AST.ClassNode;
+import AST.MethodDeclarationNode;
+import AST.TranNode;
+import Interpreter.ConsoleWrite;
+import Interpreter.Interpreter;
+
+/**
+ * Benchmark for array kernels (see Interpreter.ArrayKernel): c[i] = a[i] * k + b[i] over numberArrays, written two
+ * ways in Tran. The first is a loop whose body is just "c.set(i, a.get(i) * k + b.get(i))", which the Linker turns
+ * into a kernel that runs a block of numbers at a time. The second computes the same value into a local first
+ * ("x = a.get(i) * k + b.get(i)" then "c.set(i, x)"), so the Interpreter walks it once per number. Only the run is
+ * timed (not lexing, parsing or linking), and the two sums of c are checked against each other.
+ *
+ * Usage: java KernelBenchmark [numbers] [passes] [rounds]
+ * The defaults are 1000000 numbers, 10 passes over them per run and 4 rounds (the first is a warm-up and isn't reported).
+ */
+public class KernelBenchmark {
+    public static void main(String[] args) throws Exception {
+        int numbers = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        String kernel = program(numbers, passes, """
+                                c.set(i, a.get(i) * k + b.get(i))
+                """);
+        String interpreted = program(numbers, passes, """
+                                x = a.get(i) * k + b.get(i)
+                                c.set(i, x)
+                """);
+        System.out.printf("%d numbers x %d passes%n", numbers, passes);
+        for (int round = 0; round < rounds; round++) {
+            Run fast = run(kernel);
+            Run slow = run(interpreted);
+            if (round == 0) {
+                continue;
+            }
+            System.out.printf("kernel %8.1f ms   interpreted %8.1f ms   %.1fx  %s%n", fast.nanos / 1e6, slow.nanos / 1e6,
+                    (double) slow.nanos / fast.nanos, fast.sum.equals(slow.sum) ? "ok" : "DIFFERENT: " + fast.sum + " vs " + slow.sum);
+        }
+    }
+
+    private record Run(String sum, long nanos) {
+    }
+
+    private static String program(int numbers, int passes, String body) {
+        return """
+                class Bench
+                    shared start()
+                        numberArray a
+                        numberArray b
+                        numberArray c
+                        number i
+                        number k
+                        number x
+                        number pass
+                        a = new numberArray(%d)
+                        b = new numberArray(%d)
+                        c = new numberArray(%d)
+                        a.fill(1.25)
+                        b.fill(0.5)
+                        k = 3
+                        loop pass = 0 until %d
+                            loop i = 0 until %d
+                %s            k = k + 0
+                        console.write(c.sum())
+                """.formatted(numbers, numbers, numbers, passes, numbers, body);
+    }
+
+    //the program's output (c's sum) and how long start() took
+    private static Run run(String program) throws Exception {
+        TranNode top = new TranNode();
+        new Parser(top, new Lexer(program).Lex()).Tran();
+        Interpreter interpreter = new Interpreter(top);
+        long start = System.nanoTime();
+        interpreter.start();
+        long nanos = System.nanoTime() - start;
+        for (ClassNode classNode : top.Classes) {
+            if (classNode.name.equals("console")) {
+                for (MethodDeclarationNode method : classNode.methods) {
+                    if (method instanceof ConsoleWrite write) {
+                        return new Run(String.join("", write.console), nanos);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No console");
+    }
+}
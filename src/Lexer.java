@@ -48,6 +48,16 @@ public class Lexer {
         keyMap.put("shared", Token.TokenTypes.SHARED);
         keyMap.put("private", Token.TokenTypes.PRIVATE);
         keyMap.put("construct", Token.TokenTypes.CONSTRUCT);
+        keyMap.put("async", Token.TokenTypes.ASYNC);
+        keyMap.put("join", Token.TokenTypes.JOIN);
+        keyMap.put("parallel", Token.TokenTypes.PARALLEL);
+        keyMap.put("until", Token.TokenTypes.UNTIL);
+        keyMap.put("by", Token.TokenTypes.BY);
+        keyMap.put("reduce", Token.TokenTypes.REDUCE);
+        keyMap.put("break", Token.TokenTypes.BREAK);
+        keyMap.put("return", Token.TokenTypes.RETURN);
+        keyMap.put("match", Token.TokenTypes.MATCH);
+        keyMap.put("case", Token.TokenTypes.CASE);
     }
 
     private int lineNumber = 0; //tracks line number (y)
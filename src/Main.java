@@ -1,13 +1,42 @@
 import AST.TranNode;
-import Interpreter.ConsoleWrite;
-import Interpreter.Interpreter;
-import AST.BuiltInMethodDeclarationNode;
-import java.util.List;
+import Server.TranServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        //--server [port | socket path] keeps a warm interpreter around instead of paying JVM startup per script
+        if (args.length > 0 && args[0].equals("--server")) {
+            SocketAddress address;
+            if (args.length > 1 && !args[1].matches("\\d+")) {
+                address = UnixDomainSocketAddress.of(args[1]);
+            } else {
+                int port = args.length > 1 ? Integer.parseInt(args[1]) : 7311;
+                address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            }
+            int cores = Runtime.getRuntime().availableProcessors();
+            TranServer server = new TranServer(Main::compile, 64, cores, cores * 16);
+            System.out.println("Tran server listening on " + server.start(address));
+            return;
+        }
         System.out.println("args has " + args.length + " arguments");
         for (var a : args)
             System.out.println("    " + a);
     }
+
+    //lex and parse a program; syntax errors become runtime exceptions so the server can report them
+    static TranNode compile(String source) {
+        try {
+            var tokens = new Lexer(source).Lex();
+            var tran = new TranNode();
+            new Parser(tran, tokens).Tran();
+            return tran;
+        } catch (SyntaxErrorException e) {
+            throw new RuntimeException(e.toString());
+        }
+    }
 }
@@ -313,8 +313,7 @@ public class Parser {
                 if (tokenManager.matchAndRemove(Token.TokenTypes.COLON).isEmpty()) {
                     throw new SyntaxErrorException("colon after accessor expected.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
                 }
-                //List<StatementNode> accessorStatements = parseStatements();
-                //memberNode.accessor = Optional.of(accessorStatements);
+                memberNode.accessor = parseMemberBlock();
             }
 
 
@@ -323,13 +322,22 @@ public class Parser {
                 if (tokenManager.matchAndRemove(Token.TokenTypes.COLON).isEmpty()) {
                     throw new SyntaxErrorException("colon after mutator expected.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
                 }
-                //List<StatementNode> mutatorStatements = parseStatements();
-                //memberNode.mutator = Optional.of(mutatorStatements);
+                memberNode.mutator = parseMemberBlock();
             }
         }
         return Optional.of(memberNode);
     }
 
+    //the statements after "accessor:" or "mutator:" (empty if there are none)
+    private Optional<List<StatementNode>> parseMemberBlock() throws SyntaxErrorException {
+        tokenManager.matchAndRemove(Token.TokenTypes.NEWLINE);
+        Optional<Token> nextToken = tokenManager.peek(0);
+        if (nextToken.isEmpty() || nextToken.get().getType() != Token.TokenTypes.INDENT) {
+            return Optional.empty();
+        }
+        return Optional.of(parseStatements());
+    }
+
     //MethodDeclaration = ["private"] ["shared"] MethodHeader NEWLINE methodBody
     private Optional<MethodDeclarationNode> parseMethodDeclaration() throws SyntaxErrorException {
        MethodDeclarationNode methodDeclaration = new MethodDeclarationNode();
@@ -395,7 +403,8 @@ public class Parser {
             Optional<StatementNode> statement = parseStatement();
             if (statement.isPresent()) {
                 statements.add(statement.get());
-                if (statement.get() instanceof AssignmentNode || statement.get() instanceof MethodCallStatementNode) {
+                if (statement.get() instanceof AssignmentNode || statement.get() instanceof MethodCallStatementNode || statement.get() instanceof JoinNode
+                        || statement.get() instanceof BreakNode || statement.get() instanceof ReturnNode) {
                     requireNewLine();
                 }
                 continue; // continue to check for more statements
@@ -439,7 +448,7 @@ public class Parser {
         return statements;
     }
 
-    //Statement = If | Loop | MethodCall | Assignment
+    //Statement = If | Match | Loop | CountedLoop | ParallelLoop | MethodCall | Assignment | Join | "break" | "return"
     private Optional<StatementNode> parseStatement() throws SyntaxErrorException {
         Optional<Token> nextToken = tokenManager.peek(0);
         if (nextToken.isEmpty()) {
@@ -450,10 +459,20 @@ public class Parser {
         //parses through statements (if & loop) calls disambiguate if a word is found
         if (token.getType() == Token.TokenTypes.IF) {
             return parseIf();
+        } else if (token.getType() == Token.TokenTypes.MATCH) {
+            return parseMatch();
         } else if (token.getType() == Token.TokenTypes.LOOP) {
             return parseLoop();
+        } else if (token.getType() == Token.TokenTypes.PARALLEL) {
+            return parseParallelLoop();
         } else if (token.getType() == Token.TokenTypes.WORD) {
             return disambiguate();
+        } else if (token.getType() == Token.TokenTypes.JOIN) {
+            return parseJoin(new LinkedList<>());
+        } else if (tokenManager.matchAndRemove(Token.TokenTypes.BREAK).isPresent()) {
+            return Optional.of(new BreakNode());
+        } else if (tokenManager.matchAndRemove(Token.TokenTypes.RETURN).isPresent()) {
+            return Optional.of(new ReturnNode());
         }
         return Optional.empty();
     }
@@ -499,6 +518,48 @@ public class Parser {
         return Optional.of(ifNode);
     }
 
+    //Match = "match" Expression NEWLINE INDENT Case {Case} ["else" NEWLINE Statements] DEDENT
+    //Case = "case" Constant {"," Constant} NEWLINE Statements
+    private Optional<StatementNode> parseMatch() throws SyntaxErrorException {
+        if (tokenManager.matchAndRemove(Token.TokenTypes.MATCH).isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<ExpressionNode> subject = parseExpression();
+        if (subject.isEmpty()) {
+            throw new SyntaxErrorException("expected expression after match.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        requireNewLine();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.INDENT).isEmpty()) {
+            throw new SyntaxErrorException("Indent expected.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        MatchNode matchNode = new MatchNode();
+        matchNode.subject = subject.get();
+        while (tokenManager.matchAndRemove(Token.TokenTypes.CASE).isPresent()) {
+            CaseNode caseNode = new CaseNode();
+            do {
+                Optional<ExpressionNode> constant = parseFactor();
+                if (constant.isEmpty() || !(constant.get() instanceof NumericLiteralNode || constant.get() instanceof StringLiteralNode || constant.get() instanceof CharLiteralNode)) {
+                    throw new SyntaxErrorException("expected a number, string or character constant after case.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+                }
+                caseNode.constants.add(constant.get());
+            } while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent());
+            requireNewLine();
+            caseNode.statements = parseStatements();
+            matchNode.cases.add(caseNode);
+        }
+        if (matchNode.cases.isEmpty()) {
+            throw new SyntaxErrorException("expected case after match.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        if (tokenManager.matchAndRemove(Token.TokenTypes.ELSE).isPresent()) {
+            requireNewLine();
+            ElseNode elseNode = new ElseNode();
+            elseNode.statements = parseStatements();
+            matchNode.elseStatement = Optional.of(elseNode);
+        }
+        //the match's own DEDENT is on the same line as the one that ended the last statements, and the lexer only makes one
+        return Optional.of(matchNode);
+    }
+
     //Loop = "loop" [VariableReference "=" ] ( BoolExpTerm ) NEWLINE Statements
     private Optional<StatementNode> parseLoop() throws SyntaxErrorException {
 
@@ -515,6 +576,9 @@ public class Parser {
                 throw new SyntaxErrorException("Expected variable reference after assignment.", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
             }
             assignment = Optional.of((VariableReferenceNode) varRef.get());
+            if (untilOnThisLine()) {
+                return Optional.of(parseCountedLoop(assignment.get()));
+            }
         }
         Optional<ExpressionNode> condition = parseBoolExpTerm();
         if (condition.isEmpty()) {
@@ -538,6 +602,130 @@ public class Parser {
         return Optional.of(loopNode);
     }
 
+    //is there an "until" before the end of the line (so "loop x = ..." is a counted loop)?
+    private boolean untilOnThisLine() {
+        for (int i = 0; tokenManager.peek(i).isPresent(); i++) {
+            Token.TokenTypes type = tokenManager.peek(i).get().getType();
+            if (type == Token.TokenTypes.UNTIL) {
+                return true;
+            }
+            if (type == Token.TokenTypes.NEWLINE) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    //CountedLoop = "loop" VariableReference "=" Expression "until" Expression ["by" Expression] NEWLINE Statements
+    //("loop" and the variable reference have already been taken)
+    private CountedLoopNode parseCountedLoop(VariableReferenceNode variable) throws SyntaxErrorException {
+        CountedLoopNode loopNode = new CountedLoopNode();
+        loopNode.variable = variable;
+        Optional<ExpressionNode> from = parseExpression();
+        if (from.isEmpty()) {
+            throw new SyntaxErrorException("Expected start of range after '='", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        loopNode.from = from.get();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.UNTIL).isEmpty()) {
+            throw new SyntaxErrorException("Expected 'until' in loop range", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        Optional<ExpressionNode> until = parseExpression();
+        if (until.isEmpty()) {
+            throw new SyntaxErrorException("Expected end of range after 'until'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        loopNode.until = until.get();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.BY).isPresent()) {
+            Optional<ExpressionNode> step = parseExpression();
+            if (step.isEmpty()) {
+                throw new SyntaxErrorException("Expected step after 'by'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+            }
+            loopNode.step = step;
+        }
+        //newline required before the body
+        requireNewLine();
+        loopNode.statements = parseStatements();
+        return loopNode;
+    }
+
+    //ParallelLoop = "parallel" "loop" VariableReference "=" Expression "until" Expression ["by" Expression] ["reduce" Reduction { "," Reduction }] NEWLINE Statements
+    private Optional<StatementNode> parseParallelLoop() throws SyntaxErrorException {
+        //looks for parallel, then loop
+        if (tokenManager.matchAndRemove(Token.TokenTypes.PARALLEL).isEmpty()) {
+            return Optional.empty();
+        }
+        if (tokenManager.matchAndRemove(Token.TokenTypes.LOOP).isEmpty()) {
+            throw new SyntaxErrorException("Expected 'loop' after 'parallel'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        ParallelLoopNode loopNode = new ParallelLoopNode();
+
+        //looks for the loop variable and its '='
+        Optional<ExpressionNode> variable = parseVariableReference();
+        if (variable.isEmpty()) {
+            throw new SyntaxErrorException("Expected loop variable after 'parallel loop'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        loopNode.variable = (VariableReferenceNode) variable.get();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.ASSIGN).isEmpty()) {
+            throw new SyntaxErrorException("Expected '=' after loop variable", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+
+        //parses the range: from until to [by step]
+        Optional<ExpressionNode> from = parseExpression();
+        if (from.isEmpty()) {
+            throw new SyntaxErrorException("Expected start of range after '='", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        loopNode.from = from.get();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.UNTIL).isEmpty()) {
+            throw new SyntaxErrorException("Expected 'until' in parallel loop range", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        Optional<ExpressionNode> until = parseExpression();
+        if (until.isEmpty()) {
+            throw new SyntaxErrorException("Expected end of range after 'until'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        loopNode.until = until.get();
+        if (tokenManager.matchAndRemove(Token.TokenTypes.BY).isPresent()) {
+            Optional<ExpressionNode> step = parseExpression();
+            if (step.isEmpty()) {
+                throw new SyntaxErrorException("Expected step after 'by'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+            }
+            loopNode.step = step;
+        }
+
+        //parses the reductions, if there are any
+        if (tokenManager.matchAndRemove(Token.TokenTypes.REDUCE).isPresent()) {
+            do {
+                loopNode.reductions.add(parseReduction());
+            } while (tokenManager.matchAndRemove(Token.TokenTypes.COMMA).isPresent());
+        }
+
+        //newline required before the body
+        requireNewLine();
+        loopNode.statements = parseStatements();
+        return Optional.of(loopNode);
+    }
+
+    //Reduction = ("sum" | "min" | "max" | "count") VariableReference
+    private ReductionNode parseReduction() throws SyntaxErrorException {
+        //the operation is a plain word, so sum/min/max/count can still be used as names everywhere else
+        Optional<Token> opToken = tokenManager.matchAndRemove(Token.TokenTypes.WORD);
+        if (opToken.isEmpty()) {
+            throw new SyntaxErrorException("Expected sum, min, max or count after 'reduce'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        ReductionNode reductionNode = new ReductionNode();
+        switch (opToken.get().getValue()) {
+            case "sum" -> reductionNode.op = ReductionNode.ReductionOperations.sum;
+            case "min" -> reductionNode.op = ReductionNode.ReductionOperations.min;
+            case "max" -> reductionNode.op = ReductionNode.ReductionOperations.max;
+            case "count" -> reductionNode.op = ReductionNode.ReductionOperations.count;
+            default -> throw new SyntaxErrorException("Unknown reduction " + opToken.get().getValue(), tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        Optional<ExpressionNode> variable = parseVariableReference();
+        if (variable.isEmpty()) {
+            throw new SyntaxErrorException("Expected variable after " + reductionNode.op, tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        reductionNode.variable = (VariableReferenceNode) variable.get();
+        return reductionNode;
+    }
+
     //Assignment = VariableReference "=" Expression
     private Optional<StatementNode> parseAssignment() throws SyntaxErrorException {
         //looks for var ref
@@ -590,6 +778,11 @@ public class Parser {
             throw new SyntaxErrorException("no '=' after variable reference(s)", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
         }
 
+        //the return values can also come from joining an async call
+        if (tokenManager.peek(0).isPresent() && tokenManager.peek(0).get().getType() == Token.TokenTypes.JOIN) {
+            return parseJoin(variableRefs);
+        }
+
         //parses method call expression after '=', throws error if not found
         Optional<ExpressionNode> methodCallExpression = parseMethodCallExpression();
         if (methodCallExpression.isEmpty()) {
@@ -603,6 +796,23 @@ public class Parser {
         return Optional.of(methodCallStatementNode);
     }
 
+    //Join = [VariableReference { "," VariableReference } "="] "join" VariableReference
+    private Optional<StatementNode> parseJoin(List<VariableReferenceNode> returnValues) throws SyntaxErrorException {
+        //looks for join
+        if (tokenManager.matchAndRemove(Token.TokenTypes.JOIN).isEmpty()) {
+            return Optional.empty();
+        }
+        //looks for the task variable, throws error if not found
+        Optional<ExpressionNode> task = parseVariableReference();
+        if (task.isEmpty()) {
+            throw new SyntaxErrorException("Expected task variable after 'join'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+        }
+        JoinNode joinNode = new JoinNode();
+        joinNode.returnValues = returnValues;
+        joinNode.task = (VariableReferenceNode) task.get();
+        return Optional.of(joinNode);
+    }
+
     //BoolExpTerm = BoolExpFactor {("and"|"or") BoolExpTerm} | "not" BoolExpTerm (handle not later)
     private Optional<ExpressionNode> parseBoolExpTerm() throws SyntaxErrorException {
         //parses first factor (left side of expression)
@@ -821,6 +1031,9 @@ public class Parser {
         // if peeked token is a '=' it is a method call or assignment (assignment handles both cases)
         if (nextAfterRef.get().getType() == Token.TokenTypes.ASSIGN) {
             Optional<Token> nextAfterAssign = tokenManager.peek(2);
+            if (nextAfterAssign.isPresent() && nextAfterAssign.get().getType() == Token.TokenTypes.JOIN) {
+                return parseMethodCall();
+            }
             if (nextAfterAssign.isPresent() && nextAfterAssign.get().getType() == Token.TokenTypes.WORD) {
                 Optional<Token> nextAfterWord = tokenManager.peek(3);
                 if (nextAfterWord.isPresent() && nextAfterWord.get().getType() == Token.TokenTypes.LPAREN) {
@@ -916,7 +1129,8 @@ public class Parser {
     }
 
     /* Factor = NumberLiteral | VariableReference | "true" | "false" | StringLiteral | CharacterLiteral
-    | MethodCallExpression | "(" Expression ")" | "new" Identifier "(" [Expression {"," Expression }] ")" */
+    | MethodCallExpression | "(" Expression ")" | "new" Identifier "(" [Expression {"," Expression }] ")"
+    | "async" MethodCallExpression */
     private Optional<ExpressionNode> parseFactor() throws SyntaxErrorException {
         //checks true & false tokens first
         if (tokenManager.matchAndRemove(Token.TokenTypes.TRUE).isPresent()) {
@@ -952,6 +1166,17 @@ public class Parser {
             return Optional.of(newNode);
         }
 
+        //checks for async method calls
+        if (tokenManager.matchAndRemove(Token.TokenTypes.ASYNC).isPresent()) {
+            Optional<ExpressionNode> call = parseMethodCallExpression();
+            if (call.isEmpty()) {
+                throw new SyntaxErrorException("Expected method call after 'async'", tokenManager.getCurrentLine(), tokenManager.getCurrentColumnNumber());
+            }
+            AsyncCallNode asyncCallNode = new AsyncCallNode();
+            asyncCallNode.call = (MethodCallExpressionNode) call.get();
+            return Optional.of(asyncCallNode);
+        }
+
         //looks for expressions enclosed in ()
         if (tokenManager.matchAndRemove(Token.TokenTypes.LPAREN).isPresent()) {
             //parses expression withing ()
@@ -969,10 +1194,20 @@ public class Parser {
         Optional<Token> numToken = tokenManager.matchAndRemove(Token.TokenTypes.NUMBER);
         if (numToken.isPresent()) {
             //converts parsed number to float
-            float value = Float.parseFloat(numToken.get().getValue());
+            String text = numToken.get().getValue();
+            float value = Float.parseFloat(text);
             //creates new Numeric Literal and assigns number float value
             NumericLiteralNode numericLiteralNode = new NumericLiteralNode();
             numericLiteralNode.value = value;
+            //whole numbers are also kept exactly
+            if (!text.contains(".")) {
+                try {
+                    numericLiteralNode.wholeValue = Long.parseLong(text);
+                    numericLiteralNode.isWhole = true;
+                } catch (NumberFormatException tooBig) {
+                    //just a float, then
+                }
+            }
             return Optional.of(numericLiteralNode);
         }
 
@@ -23,6 +23,91 @@ public class Parser4Tests {
         Assertions.assertEquals("e", ((MethodCallStatementNode) firstStatement).returnValues.get(4).name);
     }
 
+    @Test
+    public void asyncAndJoinTest() throws Exception {
+        Lexer l= new Lexer("class Tran\n" +
+                "\thelloWorld()\n" +
+                "\t\tt = async worker.run(1, x)\n" +
+                "\t\ta,b = join t\n" +
+                "\t\tjoin t\n");
+        var rev= l.Lex();
+        TranNode TN= new TranNode();
+        Parser p= new Parser(TN, rev);
+        p.Tran();
+        var statements = TN.Classes.get(0).methods.get(0).statements;
+        Assertions.assertEquals(3, statements.size());
+        var async = (AsyncCallNode) ((AssignmentNode) statements.get(0)).expression;
+        Assertions.assertEquals("worker", async.call.objectName.get());
+        Assertions.assertEquals("run", async.call.methodName);
+        Assertions.assertEquals(2, async.call.parameters.size());
+        var join = (JoinNode) statements.get(1);
+        Assertions.assertEquals(2, join.returnValues.size());
+        Assertions.assertEquals("t", join.task.name);
+        Assertions.assertEquals(0, ((JoinNode) statements.get(2)).returnValues.size());
+    }
+
+    @Test
+    public void parallelLoopTest() throws Exception {
+        Lexer l= new Lexer("class Tran\n" +
+                "\thelloWorld()\n" +
+                "\t\tparallel loop i = 0 until n by 2 reduce sum total, max best\n" +
+                "\t\t\ttotal = total + i\n");
+        var rev= l.Lex();
+        TranNode TN= new TranNode();
+        Parser p= new Parser(TN, rev);
+        p.Tran();
+        var loop = (ParallelLoopNode) TN.Classes.get(0).methods.get(0).statements.getFirst();
+        Assertions.assertEquals("i", loop.variable.name);
+        Assertions.assertEquals(0.0, ((NumericLiteralNode) loop.from).value);
+        Assertions.assertEquals("n", ((VariableReferenceNode) loop.until).name);
+        Assertions.assertEquals(2.0, ((NumericLiteralNode) loop.step.get()).value);
+        Assertions.assertEquals(2, loop.reductions.size());
+        Assertions.assertEquals(ReductionNode.ReductionOperations.sum, loop.reductions.get(0).op);
+        Assertions.assertEquals("best", loop.reductions.get(1).variable.name);
+        Assertions.assertEquals(1, loop.statements.size());
+    }
+
+    @Test
+    public void countedLoopTest() throws Exception {
+        Lexer l= new Lexer("class Tran\n" +
+                "\thelloWorld()\n" +
+                "\t\tloop i = 1 until n + 1 by 3\n" +
+                "\t\t\ttotal = total + i\n");
+        var rev= l.Lex();
+        TranNode TN= new TranNode();
+        Parser p= new Parser(TN, rev);
+        p.Tran();
+        var loop = (CountedLoopNode) TN.Classes.get(0).methods.get(0).statements.getFirst();
+        Assertions.assertEquals("i", loop.variable.name);
+        Assertions.assertEquals(1.0, ((NumericLiteralNode) loop.from).value);
+        Assertions.assertInstanceOf(MathOpNode.class, loop.until);
+        Assertions.assertEquals(3.0, ((NumericLiteralNode) loop.step.get()).value);
+        Assertions.assertEquals(1, loop.statements.size());
+    }
+
+    @Test
+    public void matchTest() throws Exception {
+        Lexer l= new Lexer("class Tran\n" +
+                "\thelloWorld()\n" +
+                "\t\tmatch n + 1\n" +
+                "\t\t\tcase 1, 2\n" +
+                "\t\t\t\ttotal = 1\n" +
+                "\t\t\tcase \"three\"\n" +
+                "\t\t\t\ttotal = 3\n" +
+                "\t\t\telse\n" +
+                "\t\t\t\ttotal = 0\n");
+        var rev= l.Lex();
+        TranNode TN= new TranNode();
+        Parser p= new Parser(TN, rev);
+        p.Tran();
+        var match = (MatchNode) TN.Classes.get(0).methods.get(0).statements.getFirst();
+        Assertions.assertInstanceOf(MathOpNode.class, match.subject);
+        Assertions.assertEquals(2, match.cases.size());
+        Assertions.assertEquals(2, match.cases.get(0).constants.size());
+        Assertions.assertEquals("three", ((StringLiteralNode) match.cases.get(1).constants.getFirst()).value);
+        Assertions.assertEquals(1, match.elseStatement.get().statements.size());
+    }
+
     @Test
     public void Test_expression () throws Exception {
         Lexer l= new Lexer("class Tran\n" +
@@ -0,0 +1,69 @@
+package Server;
+
+import AST.TranNode;
+import Interpreter.Interpreter;
+import Interpreter.InterpreterDataType;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * A program that has been lexed, parsed and handed to an Interpreter, ready to run.
+ *
+ * The Interpreter adds its own console class to the TranNode it is given, so a parsed program can't be shared between
+ * two runs at the same time. Instead, we keep a small pool of "warm" interpreters for each program. A run checks one out,
+ * and gives it back when it's done. If none are idle, we compile another one from the source.
+ */
+public class LinkedProgram {
+    public final String id;
+    public final String source;
+    private final Function<String, TranNode> compiler;
+    private final ArrayBlockingQueue<Interpreter> warm;
+
+    /**
+     * Compiles the program once up front, so that syntax errors are reported when the program is loaded, not when it is first run.
+     * @param id - the name the program is cached under
+     * @param source - the Tran source
+     * @param compiler - lexes and parses source into a TranNode
+     * @param warmContexts - the most idle interpreters we will hold on to
+     */
+    public LinkedProgram(String id, String source, Function<String, TranNode> compiler, int warmContexts) {
+        this.id = id;
+        this.source = source;
+        this.compiler = compiler;
+        this.warm = new ArrayBlockingQueue<>(warmContexts);
+        warm.offer(link());
+    }
+
+    //a run's output only goes back to its client, not to the server's own stdout
+    private Interpreter link() {
+        Interpreter interpreter = new Interpreter(compiler.apply(source));
+        interpreter.setConsoleEcho(false);
+        return interpreter;
+    }
+
+    /**
+     * Run the program's start method on whatever thread calls this, capturing what it writes to the console.
+     * @param args - the values for start's parameters
+     * @param waitNanos - how long the run waited to be admitted (reported back to the caller)
+     * @return the console output and timing
+     */
+    public RunResult run(List<InterpreterDataType> args, long waitNanos) {
+        Interpreter context = warm.poll();
+        if (context == null) {
+            context = link();
+        }
+        try {
+            context.getConsole().clear();
+            long begin = System.nanoTime();
+            context.start(args);
+            long runNanos = System.nanoTime() - begin;
+            return new RunResult(List.copyOf(context.getConsole()), waitNanos, runNanos);
+        } finally {
+            context.getConsole().clear();
+            //if the pool is already full, this context is just dropped
+            warm.offer(context);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package Server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Least recently used cache of linked programs, by id. Once there are more than "capacity" programs, the one that was
+ * run (or loaded) longest ago is dropped.
+ */
+public class ProgramCache {
+    private final LinkedHashMap<String, LinkedProgram> programs;
+
+    public ProgramCache(int capacity) {
+        //access order = true makes get() move an entry to the end, so the eldest entry is the least recently used one
+        programs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LinkedProgram> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized Optional<LinkedProgram> get(String id) {
+        return Optional.ofNullable(programs.get(id));
+    }
+
+    public synchronized void put(LinkedProgram program) {
+        programs.put(program.id, program);
+    }
+
+    public synchronized int size() {
+        return programs.size();
+    }
+}
@@ -0,0 +1,20 @@
+package Server;
+
+import java.util.List;
+
+public class RunResult {
+    public final List<String> console;
+    public final long waitNanos;
+    public final long runNanos;
+
+    public RunResult(List<String> console, long waitNanos, long runNanos) {
+        this.console = console;
+        this.waitNanos = waitNanos;
+        this.runNanos = runNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ran in " + runNanos / 1000 + "us (waited " + waitNanos / 1000 + "us), " + console.size() + " line(s) of output";
+    }
+}
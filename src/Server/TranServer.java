@@ -0,0 +1,242 @@
+package Server;
+
+import AST.TranNode;
+import Interpreter.InterpreterDataType;
+import Interpreter.StringIDT;
+
+import java.io.*;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Long-running server that keeps programs linked and interpreters warm, so short scripts don't pay for JVM startup.
+ *
+ * Listens on a TCP address or a Unix domain socket. Each connection is served on its own virtual thread, and each run
+ * executes on its own virtual thread. The protocol is line based (UTF-8):
+ *      LOAD id n           - followed by n lines of source. Compiles the program and caches it as "id"
+ *      RUN id [arg ...]    - runs a cached program, passing the args (as strings) to its start method
+ *      EXEC n [arg ...]    - followed by n lines of source. Like LOAD + RUN, cached by the hash of the source
+ * A run answers "OK lines runMicros waitMicros" followed by one line per console.write() (newlines escaped as \n).
+ * Failures answer "ERROR message". If too many runs are already waiting for a slot, the answer is "BUSY".
+ */
+public class TranServer implements AutoCloseable {
+    private final Function<String, TranNode> compiler;
+    private final ProgramCache cache;
+    private final Semaphore running;
+    private final int maxRunning;
+    private final int maxQueued;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ExecutorService runs = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocketChannel listener;
+
+    /**
+     * @param compiler - lexes and parses source into a TranNode
+     * @param cacheSize - how many linked programs to keep
+     * @param maxRunning - how many runs may execute at once
+     * @param maxQueued - how many runs may wait for a free slot before we answer BUSY
+     */
+    public TranServer(Function<String, TranNode> compiler, int cacheSize, int maxRunning, int maxQueued) {
+        this.compiler = compiler;
+        this.cache = new ProgramCache(cacheSize);
+        this.running = new Semaphore(maxRunning, true);
+        this.maxRunning = maxRunning;
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * Bind to the address and start accepting connections. The accept loop is a platform thread so that it keeps the JVM alive.
+     * @param address - an InetSocketAddress or a UnixDomainSocketAddress
+     * @return the address we actually bound to (useful for port 0)
+     */
+    public SocketAddress start(SocketAddress address) throws IOException {
+        listener = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        listener.bind(address);
+        Thread.ofPlatform().name("tran-accept").start(this::acceptLoop);
+        return listener.getLocalAddress();
+    }
+
+    private void acceptLoop() {
+        while (listener.isOpen()) {
+            try {
+                SocketChannel client = listener.accept();
+                Thread.ofVirtual().name("tran-client").start(() -> serve(client));
+            } catch (IOException e) {
+                if (listener.isOpen()) {
+                    log("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        try (client;
+             var in = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+             var out = new PrintWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                out.print(handle(line, in));
+                out.flush();
+            }
+        } catch (IOException e) {
+            log("Connection dropped: " + e.getMessage());
+        }
+    }
+
+    //the server's own messages go to stderr, so stdout is left to whatever wraps the server
+    private static void log(String message) {
+        System.err.println(message);
+    }
+
+    /**
+     * Process one request line (reading its source lines from "in" if it has any) and build the response.
+     */
+    private String handle(String line, BufferedReader in) throws IOException {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0]) {
+                case "LOAD" -> {
+                    if (words.length != 3) {
+                        return "ERROR usage: LOAD id lines\n";
+                    }
+                    load(words[1], readSource(in, words[2]));
+                    return "OK\n";
+                }
+                case "RUN" -> {
+                    if (words.length < 2) {
+                        return "ERROR usage: RUN id [arg ...]\n";
+                    }
+                    return format(run(words[1], Arrays.asList(words).subList(2, words.length)));
+                }
+                case "EXEC" -> {
+                    if (words.length < 2) {
+                        return "ERROR usage: EXEC lines [arg ...]\n";
+                    }
+                    String source = readSource(in, words[1]);
+                    String id = sourceId(source);
+                    if (cache.get(id).isEmpty()) {
+                        load(id, source);
+                    }
+                    return format(run(id, Arrays.asList(words).subList(2, words.length)));
+                }
+                default -> {
+                    return "ERROR unknown command " + words[0] + "\n";
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            return "BUSY\n";
+        } catch (RuntimeException e) {
+            return "ERROR " + escape(String.valueOf(e.getMessage())) + "\n";
+        }
+    }
+
+    /**
+     * Compile a program and put it in the cache, replacing any program with the same id.
+     * A program never needs more warm interpreters than there can be runs at once.
+     */
+    public void load(String id, String source) {
+        cache.put(new LinkedProgram(id, source, compiler, maxRunning));
+    }
+
+    /**
+     * Run a cached program, subject to admission control. Blocks until the run is finished.
+     * @throws RejectedExecutionException if the queue of waiting runs is full
+     */
+    public RunResult run(String id, List<String> args) {
+        LinkedProgram program = cache.get(id).orElseThrow(() -> new RuntimeException("No program loaded with id " + id));
+        List<InterpreterDataType> values = new ArrayList<>();
+        for (String arg : args) {
+            values.add(new StringIDT(arg));
+        }
+
+        long begin = System.nanoTime();
+        if (!running.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                throw new RejectedExecutionException("Too many runs waiting");
+            }
+            try {
+                running.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting to run " + id);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        try {
+            long waitNanos = System.nanoTime() - begin;
+            return runs.submit(() -> program.run(values, waitNanos)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running " + id);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            running.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (listener != null) {
+            listener.close();
+        }
+        runs.shutdown();
+    }
+
+    private static String readSource(BufferedReader in, String count) throws IOException {
+        int lines = Integer.parseInt(count);
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            String line = in.readLine();
+            if (line == null) {
+                throw new EOFException("Expected " + lines + " lines of source, got " + i);
+            }
+            source.append(line).append('\n');
+        }
+        return source.toString();
+    }
+
+    private static String format(RunResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("OK ").append(result.console.size()).append(' ')
+                .append(result.runNanos / 1000).append(' ')
+                .append(result.waitNanos / 1000).append('\n');
+        for (String line : result.console) {
+            sb.append(escape(line)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String sourceId(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return "exec:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
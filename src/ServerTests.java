@@ -0,0 +1,110 @@
+import Interpreter.StringIDT;
+import Server.LinkedProgram;
+import Server.ProgramCache;
+import Server.RunResult;
+import Server.TranServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+
+public class ServerTests {
+    private static final String hello = """
+            class Hello
+                shared start(string who)
+                    console.write("hello ", who)
+            """;
+
+    @Test
+    public void linkedProgramRunsRepeatedly() {
+        var program = new LinkedProgram("hello", hello, Main::compile, 2);
+        var first = program.run(List.of(new StringIDT("a")), 0);
+        var second = program.run(List.of(new StringIDT("b")), 0);
+        Assertions.assertEquals(List.of("hello a"), first.console);
+        Assertions.assertEquals(List.of("hello b"), second.console);
+    }
+
+    @Test
+    public void serverRunsDontPrintToStdout() {
+        var program = new LinkedProgram("hello", hello, Main::compile, 1);
+        var stdout = System.out;
+        var printed = new ByteArrayOutputStream();
+        RunResult result;
+        System.setOut(new PrintStream(printed, true));
+        try {
+            result = program.run(List.of(new StringIDT("quietly")), 0);
+        } finally {
+            System.setOut(stdout);
+        }
+        Assertions.assertEquals(List.of("hello quietly"), result.console);
+        Assertions.assertEquals("", printed.toString());
+    }
+
+    @Test
+    public void decimalSettingsDontCarryOverToTheNextRun() {
+        String split = """
+                class Split
+                    shared start()
+                        decimal one
+                        decimal third
+                        one = 1
+                        third = one / 3
+                        console.write(third)
+                        decimals.divideWith(2, "down")
+                        third = one / 3
+                        console.write(third)
+                """;
+        //one warm interpreter, so the second run gets the same one
+        var program = new LinkedProgram("split", split, Main::compile, 1);
+        var first = program.run(List.of(), 0);
+        var second = program.run(List.of(), 0);
+        Assertions.assertEquals(List.of("0.3333333333", "0.33"), first.console);
+        Assertions.assertEquals(first.console, second.console);
+    }
+
+    @Test
+    public void cacheEvictsLeastRecentlyUsed() {
+        var cache = new ProgramCache(2);
+        cache.put(new LinkedProgram("a", hello, Main::compile, 1));
+        cache.put(new LinkedProgram("b", hello, Main::compile, 1));
+        cache.get("a");
+        cache.put(new LinkedProgram("c", hello, Main::compile, 1));
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.get("a").isPresent());
+        Assertions.assertTrue(cache.get("b").isEmpty());
+        Assertions.assertTrue(cache.get("c").isPresent());
+    }
+
+    @Test
+    public void loadAndRunOverSocket() throws Exception {
+        try (var server = new TranServer(Main::compile, 4, 2, 4)) {
+            var address = (InetSocketAddress) server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (var socket = new Socket(address.getAddress(), address.getPort());
+                 var out = new PrintWriter(socket.getOutputStream(), true);
+                 var in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+                String[] lines = hello.split("\n");
+                out.println("LOAD hello " + lines.length);
+                for (var line : lines)
+                    out.println(line);
+                Assertions.assertEquals("OK", in.readLine());
+
+                out.println("RUN hello world");
+                String[] header = in.readLine().split(" ");
+                Assertions.assertEquals("OK", header[0]);
+                Assertions.assertEquals("1", header[1]);
+                Assertions.assertEquals("hello world", in.readLine());
+
+                out.println("RUN missing");
+                Assertions.assertTrue(in.readLine().startsWith("ERROR"));
+            }
+        }
+    }
+}
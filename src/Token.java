@@ -11,7 +11,11 @@ public class Token {
         QUOTEDSTRING, QUOTEDCHARACTER,
         TRUE, NEW, FALSE,
         PRIVATE, SHARED, CONSTRUCT,
-        AND, OR, NOT
+        AND, OR, NOT,
+        ASYNC, JOIN,
+        PARALLEL, UNTIL, BY, REDUCE,
+        BREAK, RETURN,
+        MATCH, CASE
     }
 
     private Optional<String> value;